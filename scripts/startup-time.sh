@@ -0,0 +1,89 @@
+#!/usr/bin/env bash
+#
+# Startup comparison: plain `java -jar` image vs the AOT + AppCDS image, same jar.
+#
+#   mvn -Paot -DskipTests package
+#   scripts/startup-time.sh
+#
+# Both images are built from the Dockerfile (--target standard and --target optimized)
+# and started $RUNS times each against the same database. For every start it reports:
+#   jvm-started      "Started BankappApplication in ..." from the log (context refresh)
+#   first-request    container start until GET /login is answered, i.e. Tomcat is serving
+#   ready            container start until /actuator/health/readiness is UP, i.e. after warm-up
+#
+# Needs: docker, curl and a MySQL reachable from containers at $DB_URL.
+
+set -euo pipefail
+
+RUNS=${RUNS:-5}
+PORT=${PORT:-8081}
+BASE_URL="http://localhost:${PORT}"
+DB_URL=${DB_URL:-jdbc:mysql://host.docker.internal:3306/bankdb?useSSL=false&allowPublicKeyRetrieval=true&serverTimezone=UTC&rewriteBatchedStatements=true&useCursorFetch=true}
+DB_USERNAME=${DB_USERNAME:-root}
+DB_PASSWORD=${DB_PASSWORD:-1234}
+OUT=${OUT:-target/startup-time}
+
+# requiresSecure() redirects plain HTTP; pretend we sit behind the TLS-terminating proxy
+PROTO_HEADER="X-Forwarded-Proto: https"
+
+mkdir -p "$OUT"
+
+now_millis() {
+  echo $(( $(date +%s%N) / 1000000 ))
+}
+
+wait_for() {
+  local url=$1 start=$2
+  for _ in $(seq 1 1200); do
+    if curl -sf -o /dev/null -H "$PROTO_HEADER" "$url"; then
+      echo $(( $(now_millis) - start ))
+      return 0
+    fi
+    sleep 0.1
+  done
+  echo "timed out waiting for ${url}" >&2
+  return 1
+}
+
+measure() {
+  local image=$1 run=$2
+  local name="bankapp-startup-${image}-${run}"
+  local start first ready started
+
+  start=$(now_millis)
+  docker run -d --rm --name "$name" -p "${PORT}:8081" --add-host host.docker.internal:host-gateway \
+    -e SPRING_DATASOURCE_URL="$DB_URL" \
+    -e SPRING_DATASOURCE_USERNAME="$DB_USERNAME" \
+    -e SPRING_DATASOURCE_PASSWORD="$DB_PASSWORD" \
+    "bankapp:${image}" >/dev/null
+  trap 'docker rm -f "$name" >/dev/null 2>&1 || true' EXIT
+
+  first=$(wait_for "${BASE_URL}/login" "$start")
+  ready=$(wait_for "${BASE_URL}/actuator/health/readiness" "$start")
+  docker logs "$name" >"$OUT/${image}-${run}.log" 2>&1
+  started=$(grep -oE 'Started BankappApplication in [0-9.]+ seconds' "$OUT/${image}-${run}.log" \
+    | grep -oE '[0-9.]+' | head -n 1)
+
+  docker rm -f "$name" >/dev/null
+  trap - EXIT
+  printf '%-10s %3d %14ss %14sms %10sms\n' "$image" "$run" "${started:-?}" "$first" "$ready" | tee -a "$OUT/results.txt"
+}
+
+docker build -q --target standard -t bankapp:standard . >/dev/null
+docker build -q --target optimized -t bankapp:optimized . >/dev/null
+
+: >"$OUT/results.txt"
+printf '%-10s %3s %15s %16s %12s\n' image run jvm-started first-request ready
+for run in $(seq 1 "$RUNS"); do
+  measure standard "$run"
+  measure optimized "$run"
+done
+
+echo "== medians"
+for image in standard optimized; do
+  for column in 4 5; do
+    awk -v image="$image" '$1 == image { gsub(/ms/, "", $'"$column"'); print $'"$column"' }' "$OUT/results.txt" \
+      | sort -n | awk -v image="$image" -v column="$([ "$column" = 4 ] && echo first-request || echo ready)" \
+        '{ v[NR] = $1 } END { printf "%-10s %-14s %sms\n", image, column, v[int((NR + 1) / 2)] }'
+  done
+done
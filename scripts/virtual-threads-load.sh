@@ -0,0 +1,96 @@
+#!/usr/bin/env bash
+#
+# Load comparison: thread-per-request vs virtual threads, same jar, same database.
+#
+#   mvn -Pvirtual-threads -DskipTests package
+#   scripts/virtual-threads-load.sh
+#
+# Each mode is started with a JFR recording, driven with `hey` against the
+# read-heavy pages for $DURATION at $CONCURRENCY, then stopped. Virtual mode runs
+# the virtual-threads profile, so it also gets that profile's pool sizes. Pinned carrier
+# threads are reported from the jdk.VirtualThreadPinned events (threshold lowered
+# to 1ms) and from -Djdk.tracePinnedThreads output in the application log.
+#
+# Needs: Java 21, hey (https://github.com/rakyll/hey), a running MySQL with an
+# account $USERNAME/$PASSWORD that has some transaction history.
+
+set -euo pipefail
+
+JAR=${JAR:-$(ls target/bankapp-*.jar | grep -v plain | head -n 1)}
+PORT=${PORT:-8081}
+BASE_URL="http://localhost:${PORT}"
+USERNAME=${USERNAME:-loadtest}
+PASSWORD=${PASSWORD:-loadtest}
+DURATION=${DURATION:-60s}
+CONCURRENCY=${CONCURRENCY:-400}
+OUT=${OUT:-target/virtual-threads-load}
+
+# requiresSecure() redirects plain HTTP; pretend we sit behind the TLS-terminating proxy
+PROTO_HEADER="X-Forwarded-Proto: https"
+
+mkdir -p "$OUT"
+
+wait_for_startup() {
+  for _ in $(seq 1 60); do
+    if curl -s -o /dev/null -H "$PROTO_HEADER" "${BASE_URL}/login"; then
+      return 0
+    fi
+    sleep 1
+  done
+  echo "application did not start, see $1" >&2
+  return 1
+}
+
+login() {
+  local jar=$1
+  curl -s -o /dev/null -c "$jar" -H "$PROTO_HEADER" \
+    --data-urlencode "username=${USERNAME}" --data-urlencode "password=${PASSWORD}" \
+    "${BASE_URL}/login"
+  awk '$6 == "JSESSIONID" { print $7 }' "$jar"
+}
+
+run_mode() {
+  local mode=$1 profile=${2:-}
+  local log="$OUT/${mode}.log" recording="$OUT/${mode}.jfr"
+  local jvm_args=() app_args=()
+  if [ -n "$profile" ]; then
+    # report_pinning counts the stacks this prints to the log
+    jvm_args+=(-Djdk.tracePinnedThreads=short)
+    app_args+=(--spring.profiles.active="$profile")
+  fi
+
+  echo "== ${mode} (profile: ${profile:-default})"
+  java ${jvm_args[@]+"${jvm_args[@]}"} \
+    "-XX:StartFlightRecording:filename=${recording},settings=profile,jdk.VirtualThreadPinned#threshold=1ms" \
+    -jar "$JAR" --server.port="$PORT" ${app_args[@]+"${app_args[@]}"} >"$log" 2>&1 &
+  local pid=$!
+  trap 'kill $pid 2>/dev/null || true' EXIT
+
+  wait_for_startup "$log"
+  local session
+  session=$(login "$OUT/${mode}.cookies")
+
+  for path in /transactions /accounts; do
+    echo "-- GET ${path}"
+    hey -z "$DURATION" -c "$CONCURRENCY" -H "$PROTO_HEADER" -H "Cookie: JSESSIONID=${session}" \
+      "${BASE_URL}${path}" | tee "$OUT/${mode}$(echo "$path" | tr / -).txt" \
+      | grep -E "Requests/sec|Average|99%|Status code|\[[0-9]{3}\]"
+  done
+
+  kill -INT "$pid"
+  wait "$pid" || true
+  trap - EXIT
+}
+
+report_pinning() {
+  local recording="$OUT/virtual.jfr"
+  echo "== carrier-thread pinning (virtual mode)"
+  echo "jdk.VirtualThreadPinned events: $(jfr print --events jdk.VirtualThreadPinned "$recording" | grep -c 'jdk.VirtualThreadPinned' || true)"
+  jfr print --events jdk.VirtualThreadPinned --stack-depth 8 "$recording" \
+    | grep -E '^\s+[a-z].*line:' | sort | uniq -c | sort -rn | head -n 15
+  echo "tracePinnedThreads stacks in log: $(grep -c '<== monitors' "$OUT/virtual.log" || true)"
+}
+
+run_mode platform
+run_mode virtual virtual-threads
+report_pinning
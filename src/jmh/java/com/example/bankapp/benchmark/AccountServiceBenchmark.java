@@ -0,0 +1,96 @@
+package com.example.bankapp.benchmark;
+
+import com.example.bankapp.model.Account;
+import com.example.bankapp.service.AccountService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Money-movement and authentication paths of {@link AccountService}.
+ * Thread counts, modes and profilers are chosen by {@link BenchmarkRunner}.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class AccountServiceBenchmark {
+
+    private static final int ACCOUNTS = 1024;
+    private static final BigDecimal OPENING_BALANCE = new BigDecimal("1000000000");
+    private static final BigDecimal AMOUNT = BigDecimal.ONE;
+
+    private final AtomicLong registrations = new AtomicLong();
+
+    private ConfigurableApplicationContext context;
+    private AccountService accountService;
+    private Account[] accounts;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = EmbeddedBankapp.start();
+        accountService = context.getBean(AccountService.class);
+
+        accounts = new Account[ACCOUNTS];
+        for (int i = 0; i < ACCOUNTS; i++) {
+            Account account = accountService.registerAccount("bench-" + i, "secret");
+            accountService.deposit(account, OPENING_BALANCE);
+            accounts[i] = account;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /** Per-thread cursor so threads spread over the seeded accounts without sharing a counter. */
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next = ThreadLocalRandom.current().nextInt(ACCOUNTS);
+
+        Account next(Account[] accounts) {
+            next = (next + 1) % ACCOUNTS;
+            return accounts[next];
+        }
+    }
+
+    @Benchmark
+    public void deposit(Cursor cursor) {
+        accountService.deposit(cursor.next(accounts), AMOUNT);
+    }
+
+    @Benchmark
+    public void withdraw(Cursor cursor) {
+        accountService.withdraw(cursor.next(accounts), AMOUNT);
+    }
+
+    @Benchmark
+    public void transferAmount(Cursor cursor) {
+        Account from = cursor.next(accounts);
+        Account to = cursor.next(accounts);
+        accountService.transferAmount(from, to.getUsername(), AMOUNT);
+    }
+
+    @Benchmark
+    public Account registerAccount() {
+        return accountService.registerAccount("bench-new-" + registrations.incrementAndGet(), "secret");
+    }
+
+    @Benchmark
+    public UserDetails loadUserByUsername(Cursor cursor) {
+        return accountService.loadUserByUsername(cursor.next(accounts).getUsername());
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.bankapp.benchmark;
+
+import com.example.bankapp.model.Account;
+import com.example.bankapp.model.AccountPrincipal;
+import com.example.bankapp.service.AccountService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.math.BigDecimal;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * The same account data served as a page and as JSON from {@code /api/v1}: the dashboard
+ * against the balance, and the history page against the history endpoint, both with 50
+ * rows. Throughput gives CPU per request, the GC profiler bytes allocated per request
+ * ({@code gc.alloc.rate.norm}); response sizes are printed once at setup.
+ * <p>
+ * Requests run through the DispatcherServlet, controllers, the page cache, view rendering
+ * or JSON conversion and the database, but not Tomcat or the security filters, which cost
+ * the same either way. With {@code pageCache=true} pages reuse the account fragments
+ * rendered for the unchanged account, as repeat views do in production.
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.includes=ApiVsPageBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class ApiVsPageBenchmark {
+
+    private static final int HISTORY_ROWS = 60;
+
+    @Param({"false", "true"})
+    public boolean pageCache;
+
+    private ConfigurableApplicationContext context;
+    private MockMvc mockMvc;
+    private UsernamePasswordAuthenticationToken user;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        context = EmbeddedBankapp.start("--bankapp.page-cache.enabled=" + pageCache);
+        AccountService accountService = context.getBean(AccountService.class);
+
+        Account account = accountService.registerAccount("api-bench", "secret");
+        for (int i = 0; i < HISTORY_ROWS; i++) {
+            accountService.deposit(account, BigDecimal.valueOf(100 + i, 2));
+        }
+        AccountPrincipal principal = new AccountPrincipal(account.getId(), account.getUsername(), null);
+        user = UsernamePasswordAuthenticationToken.authenticated(principal, null, principal.getAuthorities());
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+
+        System.out.printf("%n[pageCache=%b] response bytes: dashboard %d, balance %d, history page %d, history json %d%n",
+                pageCache, dashboardHtml(), balanceJson(), historyHtml(), historyJson());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int dashboardHtml() throws Exception {
+        return bytes("/dashboard");
+    }
+
+    @Benchmark
+    public int balanceJson() throws Exception {
+        return bytes("/api/v1/account");
+    }
+
+    @Benchmark
+    public int historyHtml() throws Exception {
+        return bytes("/transactions");
+    }
+
+    @Benchmark
+    public int historyJson() throws Exception {
+        return bytes("/api/v1/account/transactions");
+    }
+
+    private int bytes(String path) throws Exception {
+        return mockMvc.perform(get(path).principal(user)).andReturn().getResponse().getContentAsByteArray().length;
+    }
+}
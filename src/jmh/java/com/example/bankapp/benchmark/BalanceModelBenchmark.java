@@ -0,0 +1,87 @@
+package com.example.bankapp.benchmark;
+
+import com.example.bankapp.model.Account;
+import com.example.bankapp.service.AccountService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Update-in-place balances ({@code row}) against the append-only ledger with snapshots
+ * ({@code ledger}): transfers and dashboard balance reads running side by side on a small
+ * set of hot accounts, where row locks on the recipient are what the ledger avoids.
+ * <p>
+ * The ledger runs with a short fold delay and snapshot interval so reads sum a bounded
+ * tail, as they would in production after the first few minutes.
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.includes=BalanceModelBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class BalanceModelBenchmark {
+
+    private static final int ACCOUNTS = 32;
+    private static final BigDecimal AMOUNT = BigDecimal.ONE;
+
+    @Param({"row", "ledger"})
+    public String model;
+
+    private ConfigurableApplicationContext context;
+    private AccountService accountService;
+    private Account[] accounts;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = EmbeddedBankapp.start(
+                "--bankapp.balance.model=" + model,
+                "--bankapp.ledger.fold-delay=1s",
+                "--bankapp.ledger.snapshot-interval=PT1S");
+        accountService = context.getBean(AccountService.class);
+
+        accounts = new Account[ACCOUNTS];
+        for (int i = 0; i < ACCOUNTS; i++) {
+            Account account = accountService.registerAccount("balance-" + i, "secret");
+            accountService.deposit(account, new BigDecimal("1000000000"));
+            accounts[i] = account;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(4)
+    public void transfer() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int from = random.nextInt(ACCOUNTS);
+        int to = (from + 1 + random.nextInt(ACCOUNTS - 1)) % ACCOUNTS;
+        accountService.transferAmount(accounts[from], accounts[to].getUsername(), AMOUNT);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(4)
+    public BigDecimal readBalance() {
+        Account account = accounts[ThreadLocalRandom.current().nextInt(ACCOUNTS)];
+        return accountService.findAccountByUsername(account.getUsername()).getBalance();
+    }
+}
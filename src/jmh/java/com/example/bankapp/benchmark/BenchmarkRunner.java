@@ -0,0 +1,64 @@
+package com.example.bankapp.benchmark;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the selected benchmarks single-threaded and at 8, 32 and 128 threads.
+ * <p>
+ * Each thread count is measured twice: throughput in ops/s with the GC profiler
+ * (see {@code gc.alloc.rate.norm} for bytes allocated per op), and sampled latency
+ * in microseconds for p99. JSON results are written to {@code target/jmh}.
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.includes=AccountServiceBenchmark
+ * </pre>
+ */
+public final class BenchmarkRunner {
+
+    private static final int[] THREAD_COUNTS = {1, 8, 32, 128};
+    private static final String RESULTS_DIR = "target/jmh";
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        String includes = args.length > 0 ? args[0] : AccountServiceBenchmark.class.getSimpleName();
+        new File(RESULTS_DIR).mkdirs();
+
+        for (int threads : THREAD_COUNTS) {
+            new Runner(throughput(includes, threads)).run();
+            new Runner(latency(includes, threads)).run();
+        }
+    }
+
+    private static Options throughput(String includes, int threads) {
+        return new OptionsBuilder()
+                .include(includes)
+                .threads(threads)
+                .mode(Mode.Throughput)
+                .timeUnit(TimeUnit.SECONDS)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(RESULTS_DIR + "/" + includes + "-throughput-t" + threads + ".json")
+                .build();
+    }
+
+    private static Options latency(String includes, int threads) {
+        return new OptionsBuilder()
+                .include(includes)
+                .threads(threads)
+                .mode(Mode.SampleTime)
+                .timeUnit(TimeUnit.MICROSECONDS)
+                .resultFormat(ResultFormatType.JSON)
+                .result(RESULTS_DIR + "/" + includes + "-latency-t" + threads + ".json")
+                .build();
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.bankapp.benchmark;
+
+import com.example.bankapp.BankappApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Boots the real application against an in-memory H2 database so benchmarks
+ * exercise the same beans, transactions and Hibernate mappings as production.
+ */
+final class EmbeddedBankapp {
+
+    private static final String[] EMBEDDED_DATABASE = {
+            "--server.port=0",
+            "--spring.datasource.url=jdbc:h2:mem:bench;MODE=MySQL;DB_CLOSE_DELAY=-1",
+            "--spring.datasource.driver-class-name=org.h2.Driver",
+            "--spring.datasource.username=sa",
+            "--spring.datasource.password=",
+            "--spring.jpa.hibernate.ddl-auto=create-drop",
+            "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+            "--spring.jpa.show-sql=false",
+            "--logging.level.root=WARN"
+    };
+
+    private EmbeddedBankapp() {
+    }
+
+    /**
+     * Command-line arguments are used rather than default properties because
+     * they take precedence over the MySQL settings in application.properties.
+     */
+    static ConfigurableApplicationContext start(String... overrides) {
+        List<String> args = new ArrayList<>(Arrays.asList(EMBEDDED_DATABASE));
+        args.addAll(Arrays.asList(overrides));
+        return SpringApplication.run(BankappApplication.class, args.toArray(new String[0]));
+    }
+}
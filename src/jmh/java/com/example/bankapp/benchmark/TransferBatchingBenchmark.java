@@ -0,0 +1,91 @@
+package com.example.bankapp.benchmark;
+
+import com.example.bankapp.model.Account;
+import com.example.bankapp.service.AccountService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Transfers per second and JDBC statements per transfer with JDBC batching off
+ * ({@code batchSize=0}, the old per-row round trips) and on.
+ * Statements per transfer are printed after every iteration.
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.includes=TransferBatchingBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class TransferBatchingBenchmark {
+
+    private static final int ACCOUNTS = 256;
+    private static final BigDecimal AMOUNT = BigDecimal.ONE;
+
+    @Param({"0", "50"})
+    public int batchSize;
+
+    private ConfigurableApplicationContext context;
+    private AccountService accountService;
+    private Statistics statistics;
+    private Account[] accounts;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = EmbeddedBankapp.start(
+                "--spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize,
+                "--spring.jpa.properties.hibernate.generate_statistics=true");
+        accountService = context.getBean(AccountService.class);
+        statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+
+        accounts = new Account[ACCOUNTS];
+        for (int i = 0; i < ACCOUNTS; i++) {
+            Account account = accountService.registerAccount("transfer-" + i, "secret");
+            accountService.deposit(account, new BigDecimal("1000000000"));
+            accounts[i] = account;
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void resetStatistics() {
+        statistics.clear();
+    }
+
+    @TearDown(Level.Iteration)
+    public void reportStatements() {
+        long transfers = statistics.getTransactionCount();
+        if (transfers > 0) {
+            System.out.printf("%n[batchSize=%d] statements/transfer: %.2f%n",
+                    batchSize, (double) statistics.getPrepareStatementCount() / transfers);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void transferAmount() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int from = random.nextInt(ACCOUNTS);
+        // Self-transfers are rejected, so the recipient is any other account
+        int to = (from + 1 + random.nextInt(ACCOUNTS - 1)) % ACCOUNTS;
+        accountService.transferAmount(accounts[from], accounts[to].getUsername(), AMOUNT);
+    }
+}
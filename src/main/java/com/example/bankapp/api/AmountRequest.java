@@ -0,0 +1,9 @@
+package com.example.bankapp.api;
+
+import java.math.BigDecimal;
+
+/**
+ * Body of {@code POST /api/v1/account/deposit} and {@code /withdraw}.
+ */
+public record AmountRequest(BigDecimal amount) {
+}
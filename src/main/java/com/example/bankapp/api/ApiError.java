@@ -0,0 +1,7 @@
+package com.example.bankapp.api;
+
+/**
+ * Body of every 4xx response from {@code /api/v1}.
+ */
+public record ApiError(String message) {
+}
@@ -0,0 +1,15 @@
+package com.example.bankapp.api;
+
+import com.example.bankapp.model.AccountSummary;
+
+import java.math.BigDecimal;
+
+/**
+ * {@code GET /api/v1/account}: the signed-in account and its current balance.
+ */
+public record BalanceResponse(long id, String username, BigDecimal balance) {
+
+    public static BalanceResponse from(AccountSummary account) {
+        return new BalanceResponse(account.getId(), account.getUsername(), account.getBalance());
+    }
+}
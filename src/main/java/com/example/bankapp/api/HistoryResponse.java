@@ -0,0 +1,13 @@
+package com.example.bankapp.api;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * A newest-first page of history. {@code nextCursor} is left out on the last page; pass it
+ * back as {@code cursor} for the next one.
+ */
+public record HistoryResponse(List<TransactionResponse> items,
+                              @JsonInclude(JsonInclude.Include.NON_NULL) String nextCursor) {
+}
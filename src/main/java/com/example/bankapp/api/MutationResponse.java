@@ -0,0 +1,13 @@
+package com.example.bankapp.api;
+
+import java.math.BigDecimal;
+
+/**
+ * Outcome of a deposit, withdrawal or transfer. {@code replayed} is true when the
+ * {@code Idempotency-Key} matched an earlier request and nothing was changed this time.
+ *
+ * @param transactionId the history row written for the signed-in account
+ * @param balance       the signed-in account's balance afterwards
+ */
+public record MutationResponse(Long transactionId, boolean replayed, BigDecimal balance) {
+}
@@ -0,0 +1,16 @@
+package com.example.bankapp.api;
+
+import com.example.bankapp.model.StatementLine;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One history row, as served by {@code GET /api/v1/account/transactions}.
+ */
+public record TransactionResponse(long id, String type, BigDecimal amount, LocalDateTime timestamp) {
+
+    public static TransactionResponse from(StatementLine line) {
+        return new TransactionResponse(line.id(), line.type(), line.amount(), line.timestamp());
+    }
+}
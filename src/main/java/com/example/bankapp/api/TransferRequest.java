@@ -0,0 +1,9 @@
+package com.example.bankapp.api;
+
+import java.math.BigDecimal;
+
+/**
+ * Body of {@code POST /api/v1/account/transfers}; the sender is always the signed-in account.
+ */
+public record TransferRequest(String toUsername, BigDecimal amount) {
+}
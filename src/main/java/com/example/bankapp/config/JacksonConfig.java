@@ -0,0 +1,29 @@
+package com.example.bankapp.config;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.util.JsonRecyclerPools;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Jackson's read and write buffers are recycled per thread by default, which on virtual
+ * threads means allocating them afresh for every JSON request and response. With virtual
+ * threads enabled, buffers come from a bounded pool shared by all threads instead.
+ */
+@Configuration
+public class JacksonConfig {
+
+    @Bean
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public Jackson2ObjectMapperBuilderCustomizer sharedBufferRecycling(
+            @Value("${bankapp.json.recycler-pool-size:128}") int poolSize) {
+        // A factory per mapper: ObjectMapper registers itself as its factory's codec
+        return builder -> builder.factory(JsonFactory.builder()
+                .recyclerPool(JsonRecyclerPools.newBoundedPool(poolSize))
+                .build());
+    }
+}
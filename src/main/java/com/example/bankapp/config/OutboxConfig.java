@@ -0,0 +1,39 @@
+package com.example.bankapp.config;
+
+import com.example.bankapp.outbox.LogOutboxSink;
+import com.example.bankapp.outbox.OutboxProperties;
+import com.example.bankapp.outbox.OutboxRelay;
+import com.example.bankapp.outbox.OutboxSink;
+import com.example.bankapp.outbox.QueueOutboxSink;
+import com.example.bankapp.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Relays transaction events from the outbox to the configured sink; switch off with
+ * {@code bankapp.outbox.enabled=false}, which also stops events being written.
+ */
+@Configuration
+@EnableConfigurationProperties(OutboxProperties.class)
+@ConditionalOnProperty(prefix = "bankapp.outbox", name = "enabled", matchIfMissing = true)
+public class OutboxConfig {
+
+    @Bean
+    public OutboxSink outboxSink(OutboxProperties properties) {
+        return switch (properties.sink()) {
+            case "log" -> new LogOutboxSink();
+            case "queue" -> new QueueOutboxSink(properties.queueCapacity());
+            default -> throw new IllegalStateException("Unknown bankapp.outbox.sink: " + properties.sink());
+        };
+    }
+
+    @Bean
+    public OutboxRelay outboxRelay(OutboxEventRepository repository, OutboxSink outboxSink, OutboxProperties properties,
+                                   PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        return new OutboxRelay(repository, outboxSink, properties.batchSize(), transactionManager, meterRegistry);
+    }
+}
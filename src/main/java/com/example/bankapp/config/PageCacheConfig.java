@@ -0,0 +1,52 @@
+package com.example.bankapp.config;
+
+import com.example.bankapp.service.AccountVersions;
+import com.example.bankapp.web.AccountPageCache;
+import com.example.bankapp.web.PageCacheProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.thymeleaf.ITemplateEngine;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.zip.CRC32;
+
+/**
+ * ETags, 304s and rendered-fragment caching for the account pages. With
+ * {@code bankapp.page-cache.enabled=false} the pages are loaded and rendered on every
+ * request, with the default no-store headers.
+ */
+@Configuration
+@EnableConfigurationProperties(PageCacheProperties.class)
+public class PageCacheConfig {
+
+    private static final String TEMPLATES = "classpath:/templates/**/*.html";
+
+    @Bean
+    public AccountPageCache accountPageCache(AccountVersions accountVersions, ITemplateEngine templateEngine,
+                                             PlatformTransactionManager transactionManager, PageCacheProperties properties,
+                                             ApplicationContext applicationContext, MeterRegistry meterRegistry)
+            throws IOException {
+        return new AccountPageCache(accountVersions, templateEngine, transactionManager, properties,
+                templateDigest(applicationContext), meterRegistry);
+    }
+
+    /**
+     * Checksum of every template, the same on every instance running the same build.
+     */
+    private static String templateDigest(ApplicationContext applicationContext) throws IOException {
+        Resource[] templates = applicationContext.getResources(TEMPLATES);
+        Arrays.sort(templates, Comparator.comparing(Resource::getDescription));
+        CRC32 crc = new CRC32();
+        for (Resource template : templates) {
+            crc.update(template.getContentAsByteArray());
+        }
+        return Long.toHexString(crc.getValue());
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.bankapp.config;
+
+import com.example.bankapp.web.RateLimitInterceptor;
+import com.example.bankapp.web.RateLimitProperties;
+import com.example.bankapp.web.TokenBucketRateLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Per-user rate limits on deposits, withdrawals and transfers; switch off with
+ * {@code bankapp.rate-limit.enabled=false}. A bulk transfer can carry thousands of payments
+ * in one request, so bulk requests draw on their own, much smaller budget rather than the
+ * one for single transfers.
+ */
+@Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
+@ConditionalOnProperty(prefix = "bankapp.rate-limit", name = "enabled", matchIfMissing = true)
+public class RateLimitConfig implements WebMvcConfigurer {
+
+    private final RateLimitProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    public RateLimitConfig(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(interceptor("deposit")).addPathPatterns("/deposit", "/api/v1/account/deposit");
+        registry.addInterceptor(interceptor("withdraw")).addPathPatterns("/withdraw", "/api/v1/account/withdraw");
+        registry.addInterceptor(interceptor("transfer")).addPathPatterns("/transfer", "/api/v1/account/transfers");
+        registry.addInterceptor(interceptor("bulk-transfer")).addPathPatterns("/transfers/bulk");
+    }
+
+    private RateLimitInterceptor interceptor(String operation) {
+        RateLimitProperties.Rate rate = properties.operation(operation);
+        Counter rejected = Counter.builder("bankapp.ratelimit.rejected")
+                .description("Requests refused with 429 by the per-user rate limit")
+                .tag("operation", operation)
+                .register(meterRegistry);
+        return new RateLimitInterceptor(
+                new TokenBucketRateLimiter(rate.permitsPerSecond(), rate.burst(), properties.maxUsers()), rejected);
+    }
+}
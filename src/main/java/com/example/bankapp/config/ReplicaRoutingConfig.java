@@ -0,0 +1,105 @@
+package com.example.bankapp.config;
+
+import com.example.bankapp.datasource.ReadYourWritesFilter;
+import com.example.bankapp.datasource.ReplicaLagMonitor;
+import com.example.bankapp.datasource.ReplicaProperties;
+import com.example.bankapp.datasource.ReplicaRoutingDataSource;
+import com.example.bankapp.datasource.ReplicaSet;
+import com.example.bankapp.session.SessionStoreProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Read/write splitting, enabled with {@code bankapp.replica.enabled=true} and one or more
+ * {@code bankapp.replica.urls}. Replaces the auto-configured pool with a primary pool built
+ * from {@code spring.datasource.*} and one read-only pool per replica, all sharing the
+ * {@code spring.datasource.hikari.*} settings.
+ */
+@Configuration
+@EnableConfigurationProperties(ReplicaProperties.class)
+@ConditionalOnProperty(prefix = "bankapp.replica", name = "enabled", havingValue = "true")
+public class ReplicaRoutingConfig {
+
+    @Bean(destroyMethod = "close")
+    public ReplicaSet replicaSet(DataSourceProperties primaryProperties, ReplicaProperties replicaProperties,
+                                 Environment environment, MeterRegistry meterRegistry) {
+        if (replicaProperties.urls().isEmpty()) {
+            throw new IllegalStateException("bankapp.replica.urls must list at least one replica");
+        }
+        Binder binder = Binder.get(environment);
+
+        HikariDataSource primary = primaryProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        configurePool(primary, "primary", binder, meterRegistry);
+
+        Map<String, HikariDataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < replicaProperties.urls().size(); i++) {
+            HikariDataSource replica = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .driverClassName(primaryProperties.determineDriverClassName())
+                    .url(replicaProperties.urls().get(i))
+                    .username(replicaProperties.username() != null ? replicaProperties.username() : primaryProperties.determineUsername())
+                    .password(replicaProperties.password() != null ? replicaProperties.password() : primaryProperties.determinePassword())
+                    .build();
+            String name = "replica-" + i;
+            configurePool(replica, name, binder, meterRegistry);
+            replica.setReadOnly(true);
+            replicas.put(name, replica);
+        }
+        return new ReplicaSet(primary, replicas);
+    }
+
+    private static void configurePool(HikariDataSource pool, String name, Binder binder, MeterRegistry meterRegistry) {
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        pool.setPoolName(name);
+        // The pools are not beans of their own, so Boot's pool metrics do not see them
+        pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+    }
+
+    @Bean
+    public DataSource dataSource(ReplicaSet replicaSet, MeterRegistry meterRegistry) {
+        return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(replicaSet, meterRegistry));
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(ReplicaSet replicaSet, ReplicaProperties replicaProperties,
+                                               MeterRegistry meterRegistry) {
+        return new ReplicaLagMonitor(replicaSet, replicaProperties.maxLag(), meterRegistry);
+    }
+
+    @Bean
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(ReplicaProperties replicaProperties,
+                                                                             ObjectProvider<SessionStoreProperties> sessionProperties) {
+        SessionStoreProperties sessions = sessionProperties.getIfAvailable();
+        if (sessions != null && sessions.nearCacheTtl().plus(replicaProperties.maxLag())
+                .compareTo(replicaProperties.readYourWritesWindow()) > 0) {
+            // Other instances may read a session copy cached before the write for one TTL; the
+            // replicas must have caught up before what is left of the window runs out
+            throw new IllegalStateException("bankapp.session.near-cache-ttl plus bankapp.replica.max-lag must not exceed"
+                    + " bankapp.replica.read-your-writes-window");
+        }
+        FilterRegistrationBean<ReadYourWritesFilter> registration =
+                new FilterRegistrationBean<>(new ReadYourWritesFilter(replicaProperties.readYourWritesWindow()));
+        // Inside the shared-session filter (HIGHEST_PRECEDENCE + 50), so the last write is kept
+        // in the session every instance sees
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 60);
+        return registration;
+    }
+}
@@ -1,16 +1,25 @@
 package com.example.bankapp.config;
 
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.web.access.channel.ChannelDecisionManagerImpl;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
 import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.time.Duration;
+import java.util.Map;
+
 
 @Configuration
 @EnableWebSecurity
@@ -22,7 +31,7 @@ public class SecurityConfig {
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
             .authorizeHttpRequests(authz -> authz
-                .requestMatchers("/register", "/actuator/prometheus").permitAll()
+                .requestMatchers("/register", "/actuator/prometheus", "/actuator/health/**").permitAll()
                 .anyRequest().authenticated()
             )
             .formLogin(form -> form
@@ -38,19 +47,41 @@ public class SecurityConfig {
                 .logoutSuccessUrl("/login?logout")
                 .permitAll()
             )
+            // API clients get a status they can act on instead of a redirect to the login page
+            .exceptionHandling(exceptions -> exceptions
+                .defaultAuthenticationEntryPointFor(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED),
+                        new AntPathRequestMatcher("/api/**"))
+            )
             .csrf(csrf -> csrf.disable())
             .headers(headers -> headers
                 .frameOptions(Customizer.withDefaults())
             )
-            .requiresChannel(channel ->
-                channel.anyRequest().requiresSecure())    // `withDefaults()` uses `DENY`
+            .requiresChannel(channel -> channel
+                // Kubelet probes call the pod directly over plain HTTP
+                .requestMatchers("/actuator/health/**").requires(ChannelDecisionManagerImpl.ANY_CHANNEL)
+                .anyRequest().requiresSecure())    // `withDefaults()` uses `DENY`
             ;
 
         return http.build();
     }
 
+    /**
+     * New hashes are written as {@code {bcrypt}} with the configured cost. Existing hashes
+     * without an id prefix are still verified as bcrypt, and any hash that is not in the
+     * current format or cost is re-encoded on the next successful login.
+     */
     @Bean
-    public static PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public static PasswordEncoder passwordEncoder(@Value("${bankapp.password.bcrypt-strength:10}") int strength,
+                                                  @Value("${bankapp.password.hashing-threads:0}") int threads,
+                                                  @Value("${bankapp.password.hashing-queue:32}") int queueCapacity,
+                                                  @Value("${bankapp.password.hashing-timeout:5s}") Duration timeout,
+                                                  MeterRegistry meterRegistry) {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(strength);
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder("bcrypt", Map.of("bcrypt", bcrypt));
+        delegating.setDefaultPasswordEncoderForMatches(bcrypt);
+
+        // By default hashing may use at most half the cores, leaving the rest for request handling
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        return new BoundedPasswordEncoder(delegating, poolSize, queueCapacity, timeout, meterRegistry);
     }
 }
@@ -0,0 +1,28 @@
+package com.example.bankapp.config;
+
+import com.example.bankapp.session.SessionStoreProperties;
+import com.example.bankapp.session.SharedSessionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.session.config.annotation.web.http.EnableSpringHttpSession;
+
+/**
+ * HTTP sessions shared by all instances through the database instead of each Tomcat's
+ * memory; switch back to container sessions with {@code bankapp.session.enabled=false}.
+ */
+@Configuration
+@EnableSpringHttpSession
+@EnableConfigurationProperties(SessionStoreProperties.class)
+@ConditionalOnProperty(prefix = "bankapp.session", name = "enabled", matchIfMissing = true)
+public class SessionConfig {
+
+    @Bean
+    public SharedSessionRepository sessionRepository(JdbcTemplate jdbcTemplate, SessionStoreProperties properties,
+                                                     MeterRegistry meterRegistry) {
+        return new SharedSessionRepository(jdbcTemplate, properties, meterRegistry);
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.bankapp.config;
+
+import com.example.bankapp.monitoring.ProfilingDataSource;
+import com.example.bankapp.monitoring.SqlProfilerProperties;
+import com.example.bankapp.monitoring.SqlProfilingFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+
+/**
+ * Per-request SQL profiling; switch off with {@code bankapp.sql-profiler.enabled=false}.
+ */
+@Configuration
+@EnableConfigurationProperties(SqlProfilerProperties.class)
+@ConditionalOnProperty(prefix = "bankapp.sql-profiler", name = "enabled", matchIfMissing = true)
+public class SqlProfilingConfig {
+
+    @Bean
+    public static BeanPostProcessor profilingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource dataSource ? ProfilingDataSource.wrap(dataSource) : bean;
+            }
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<SqlProfilingFilter> sqlProfilingFilter(MeterRegistry meterRegistry, SqlProfilerProperties properties) {
+        FilterRegistrationBean<SqlProfilingFilter> registration =
+                new FilterRegistrationBean<>(new SqlProfilingFilter(meterRegistry, properties));
+        // Ahead of Spring Security, so authentication queries count towards the request
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
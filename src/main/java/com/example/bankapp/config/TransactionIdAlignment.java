@@ -0,0 +1,51 @@
+package com.example.bankapp.config;
+
+import com.example.bankapp.model.Transaction;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Moves the pooled transaction id counter past ids already in the table.
+ * <p>
+ * Databases created before ids came from {@code id_generator} hold rows numbered by
+ * AUTO_INCREMENT; without this the first allocated block would collide with them.
+ */
+@Component
+public class TransactionIdAlignment implements ApplicationRunner {
+
+    private static final String SEQUENCE_NAME = "transaction";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TransactionIdAlignment(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Long maxId = jdbcTemplate.queryForObject("select coalesce(max(id), 0) from transaction", Long.class);
+        long floor = (maxId == null ? 0 : maxId) + Transaction.ID_ALLOCATION_SIZE + 1;
+
+        int updated = jdbcTemplate.update(
+                "update id_generator set next_val = ? where sequence_name = ? and next_val < ?",
+                floor, SEQUENCE_NAME, floor);
+        if (updated > 0) {
+            return;
+        }
+        Integer rows = jdbcTemplate.queryForObject(
+                "select count(*) from id_generator where sequence_name = ?", Integer.class, SEQUENCE_NAME);
+        if (rows != null && rows == 0) {
+            try {
+                jdbcTemplate.update("insert into id_generator (sequence_name, next_val) values (?, ?)", SEQUENCE_NAME, floor);
+            } catch (DuplicateKeyException e) {
+                // Another instance or the first insert already created the row
+                jdbcTemplate.update(
+                        "update id_generator set next_val = ? where sequence_name = ? and next_val < ?",
+                        floor, SEQUENCE_NAME, floor);
+            }
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.bankapp.config;
+
+import com.example.bankapp.service.AccountService;
+import com.example.bankapp.warmup.WarmupHealthIndicator;
+import com.example.bankapp.warmup.WarmupProperties;
+import com.example.bankapp.warmup.WarmupRunner;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.thymeleaf.ITemplateEngine;
+
+import javax.sql.DataSource;
+
+/**
+ * Start-up warm-up and the {@code warmup} health contributor the readiness group waits on.
+ * With {@code bankapp.warmup.enabled=false} the contributor is up from the start.
+ */
+@Configuration
+@EnableConfigurationProperties(WarmupProperties.class)
+public class WarmupConfig {
+
+    @Bean
+    public WarmupRunner warmupRunner(AccountService accountService, ITemplateEngine templateEngine, DataSource dataSource,
+                                     ApplicationContext applicationContext, WarmupProperties properties,
+                                     MeterRegistry meterRegistry) {
+        return new WarmupRunner(accountService, templateEngine, dataSource, applicationContext, properties, meterRegistry);
+    }
+
+    @Bean
+    public WarmupHealthIndicator warmupHealthIndicator(WarmupRunner warmupRunner) {
+        return new WarmupHealthIndicator(warmupRunner);
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.bankapp.controller;
+
+import com.example.bankapp.api.AmountRequest;
+import com.example.bankapp.api.ApiError;
+import com.example.bankapp.api.BalanceResponse;
+import com.example.bankapp.api.HistoryResponse;
+import com.example.bankapp.api.MutationResponse;
+import com.example.bankapp.api.TransactionResponse;
+import com.example.bankapp.api.TransferRequest;
+import com.example.bankapp.model.Account;
+import com.example.bankapp.model.AccountPrincipal;
+import com.example.bankapp.model.StatementLine;
+import com.example.bankapp.service.AccountNotFoundException;
+import com.example.bankapp.service.AccountService;
+import com.example.bankapp.service.CursorPage;
+import com.example.bankapp.service.IdempotencyKeyReuseException;
+import com.example.bankapp.service.InsufficientFundsException;
+import com.example.bankapp.service.MutationReceipt;
+import com.example.bankapp.web.AccountPageCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JSON API for the signed-in account, for integrations that would otherwise scrape the
+ * pages. Authentication is the same session as the UI (form login at {@code /login});
+ * requests without one get 401 rather than a redirect.
+ * <p>
+ * Reads select only the columns returned and map them straight to immutable records, so no
+ * entity is loaded or tracked, and are revalidated like the pages: the balance and history
+ * carry an ETag by account version, and a poll with nothing changed gets a 304.
+ * Mutations take the same {@code Idempotency-Key} header as the form posts.
+ */
+@RestController
+@RequestMapping(value = "/api/v1/account", produces = MediaType.APPLICATION_JSON_VALUE)
+@RequiredArgsConstructor
+public class AccountApiController {
+
+    private static final String IDEMPOTENCY_HEADER = "Idempotency-Key";
+    private static final String BALANCE_PAGE = "api-balance";
+    private static final String HISTORY_PAGE = "api-history";
+    private static final String DEFAULT_PAGE_SIZE = "50";
+
+    private final AccountService accountService;
+    private final AccountPageCache pageCache;
+
+    @GetMapping
+    public BalanceResponse balance(Principal principal, ServletWebRequest request) {
+        Long accountId = accountId(principal);
+        return pageCache.load(request, BALANCE_PAGE, accountId, null,
+                version -> BalanceResponse.from(accountService.getAccountSummary(accountId)));
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code cursor} was not returned by a previous page
+     */
+    @GetMapping("/transactions")
+    public HistoryResponse transactions(@RequestParam(required = false) String cursor,
+                                        @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit,
+                                        Principal principal, ServletWebRequest request) {
+        Long accountId = accountId(principal);
+        String variant = cursor == null ? String.valueOf(limit) : limit + ":" + cursor;
+        return pageCache.load(request, HISTORY_PAGE, accountId, variant, version -> {
+            CursorPage<StatementLine> page = accountService.getHistoryLines(accountId, cursor, limit);
+            List<TransactionResponse> items = new ArrayList<>(page.getItems().size());
+            for (StatementLine line : page.getItems()) {
+                items.add(TransactionResponse.from(line));
+            }
+            return new HistoryResponse(items, page.getNextCursor());
+        });
+    }
+
+    @PostMapping(value = "/deposit", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public MutationResponse deposit(@RequestBody AmountRequest body,
+                                    @RequestHeader(value = IDEMPOTENCY_HEADER, required = false) String idempotencyKey,
+                                    Principal principal) {
+        Account account = accountService.findAccountByUsername(principal.getName());
+        return response(accountService.deposit(account, body.amount(), emptyToNull(idempotencyKey)), account);
+    }
+
+    @PostMapping(value = "/withdraw", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public MutationResponse withdraw(@RequestBody AmountRequest body,
+                                     @RequestHeader(value = IDEMPOTENCY_HEADER, required = false) String idempotencyKey,
+                                     Principal principal) {
+        Account account = accountService.findAccountByUsername(principal.getName());
+        return response(accountService.withdraw(account, body.amount(), emptyToNull(idempotencyKey)), account);
+    }
+
+    @PostMapping(value = "/transfers", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public MutationResponse transfer(@RequestBody TransferRequest body,
+                                     @RequestHeader(value = IDEMPOTENCY_HEADER, required = false) String idempotencyKey,
+                                     Principal principal) {
+        Account account = accountService.findAccountByUsername(principal.getName());
+        return response(accountService.transferAmount(account, body.toUsername(), body.amount(), emptyToNull(idempotencyKey)),
+                account);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<ApiError> badRequest(IllegalArgumentException e) {
+        return error(HttpStatus.BAD_REQUEST, e.getMessage());
+    }
+
+    @ExceptionHandler(AccountNotFoundException.class)
+    public ResponseEntity<ApiError> notFound(AccountNotFoundException e) {
+        return error(HttpStatus.NOT_FOUND, e.getMessage());
+    }
+
+    @ExceptionHandler({InsufficientFundsException.class, IdempotencyKeyReuseException.class})
+    public ResponseEntity<ApiError> unprocessable(RuntimeException e) {
+        return error(HttpStatus.UNPROCESSABLE_ENTITY, e.getMessage());
+    }
+
+    private static ResponseEntity<ApiError> error(HttpStatus status, String message) {
+        return ResponseEntity.status(status).contentType(MediaType.APPLICATION_JSON).body(new ApiError(message));
+    }
+
+    /**
+     * The signed-in principal carries the account id, so reads need no lookup to find it.
+     */
+    private Long accountId(Principal principal) {
+        if (principal instanceof Authentication authentication
+                && authentication.getPrincipal() instanceof AccountPrincipal account && account.getId() != null) {
+            return account.getId();
+        }
+        return accountService.findAccountId(principal.getName());
+    }
+
+    private static MutationResponse response(MutationReceipt receipt, Account account) {
+        // The service keeps the caller's copy in step with the row, so this is the balance afterwards
+        return new MutationResponse(receipt.getTransactionId(), receipt.isReplayed(), account.getBalance());
+    }
+
+    private static String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+}
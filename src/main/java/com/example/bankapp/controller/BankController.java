@@ -1,38 +1,92 @@
 package com.example.bankapp.controller;
 
 import com.example.bankapp.model.Account;
+import com.example.bankapp.model.AccountPrincipal;
+import com.example.bankapp.model.AccountSummary;
+import com.example.bankapp.model.Transaction;
+import com.example.bankapp.service.AccountNotFoundException;
 import com.example.bankapp.service.AccountService;
+import com.example.bankapp.service.BulkTransferResult;
+import com.example.bankapp.service.BulkTransferService;
+import com.example.bankapp.service.CursorPage;
+import com.example.bankapp.service.IdempotencyKeyReuseException;
+import com.example.bankapp.service.InsufficientFundsException;
+import com.example.bankapp.service.StatementFormat;
+import com.example.bankapp.service.TransferInstruction;
+import com.example.bankapp.web.AccountFragment;
+import com.example.bankapp.web.AccountPageCache;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.math.BigDecimal;
+import java.security.Principal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
 
 @Controller
 @RequiredArgsConstructor
 public class BankController {
 
     private final AccountService accountService;
+    private final BulkTransferService bulkTransferService;
+    private final AccountPageCache pageCache;
 
     // Model attribute constants
     private static final String ACCOUNT = "account";
     private static final String ACCOUNTS = "accounts";
     private static final String ERROR = "error";
+    private static final String TRANSACTIONS = "transactions";
+    private static final String SUMMARY = "summary";
+    private static final String HISTORY = "history";
+    private static final String NEXT_CURSOR = "nextCursor";
+    private static final String QUERY = "q";
+    private static final String IDEMPOTENCY_KEY = "idempotencyKey";
+
+    // Header a client can send instead of the form field; the header wins when both are present
+    private static final String IDEMPOTENCY_HEADER = "Idempotency-Key";
 
     // Message constants
     private static final String NOT_FOUND = "Account not found";
+    private static final String INVALID_CURSOR = "Invalid transaction page";
+    private static final String OPERATION_FAILED = "The operation could not be completed, please try again";
+
+    // Paging constants
+    private static final int HISTORY_PAGE_SIZE = 50;
+    private static final int ACCOUNT_PAGE_SIZE = 50;
+
+    // Statement export constants
+    private static final int GZIP_BUFFER_SIZE = 8192;
+    private static final MediaType GZIP = MediaType.parseMediaType("application/gzip");
 
     // View constants
     private static final String HOME_VIEW = "home";
     private static final String ADD_VIEW = "addAccount";
     private static final String EDIT_VIEW = "editAccount";
     private static final String ACCOUNT_VIEW = "account";
+    private static final String TRANSACTIONS_VIEW = "transactions";
+    private static final String DASHBOARD_VIEW = "dashboard";
 
-    // Redirect constant
+    // Redirect constants
     private static final String REDIRECT_HOME = "redirect:/";
+    private static final String REDIRECT_DASHBOARD = "redirect:/dashboard";
 
     @GetMapping({"/", "/accounts"})
-    public String home(Model model) {
-        model.addAttribute(ACCOUNTS, accountService.getAllAccounts());
+    public String home(@RequestParam(required = false) String q, @RequestParam(required = false) Long after, Model model) {
+        CursorPage<AccountSummary> page = accountService.getAccountSummaries(q, after, ACCOUNT_PAGE_SIZE);
+        model.addAttribute(ACCOUNTS, page.getItems());
+        model.addAttribute(NEXT_CURSOR, page.getNextCursor());
+        model.addAttribute(QUERY, q);
         return HOME_VIEW;
     }
 
@@ -72,8 +126,11 @@ public class BankController {
     }
 
     @GetMapping({"/account/{id}", "/accounts/{id}"})
-    public String viewAccount(@PathVariable Long id, Model model) {
-        Account account = accountService.getAccountById(id);
+    public String viewAccount(@PathVariable Long id, ServletWebRequest request, Model model) {
+        Account account = pageCache.load(request, ACCOUNT_VIEW, id, null, version -> accountService.getAccountById(id));
+        if (request.isNotModified()) {
+            return null;
+        }
         if (account == null) {
             model.addAttribute(ERROR, NOT_FOUND);
             return ERROR;
@@ -81,4 +138,186 @@ public class BankController {
         model.addAttribute(ACCOUNT, account);
         return ACCOUNT_VIEW;
     }
+
+    /**
+     * Answers a reload with a 304 when the account has not changed since the client's copy.
+     */
+    @GetMapping("/dashboard")
+    public String dashboard(Principal principal, ServletWebRequest request, Model model) {
+        Long accountId = accountId(principal);
+        String summary = pageCache.load(request, DASHBOARD_VIEW, accountId, null,
+                version -> summary(principal, accountId, version));
+        if (request.isNotModified()) {
+            return null;
+        }
+        return dashboardView(summary, model);
+    }
+
+    @PostMapping("/deposit")
+    public String deposit(@RequestParam BigDecimal amount,
+                          @RequestHeader(value = IDEMPOTENCY_HEADER, required = false) String idempotencyHeader,
+                          @RequestParam(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+                          Principal principal, Model model) {
+        Account account = accountService.findAccountByUsername(principal.getName());
+        try {
+            accountService.deposit(account, amount, idempotencyKey(idempotencyHeader, idempotencyKey));
+        } catch (RuntimeException e) {
+            model.addAttribute(ERROR, errorMessage(e));
+            return dashboardView(principal, account.getId(), model);
+        }
+        return REDIRECT_DASHBOARD;
+    }
+
+    @PostMapping("/withdraw")
+    public String withdraw(@RequestParam BigDecimal amount,
+                           @RequestHeader(value = IDEMPOTENCY_HEADER, required = false) String idempotencyHeader,
+                           @RequestParam(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+                           Principal principal, Model model) {
+        Account account = accountService.findAccountByUsername(principal.getName());
+        try {
+            accountService.withdraw(account, amount, idempotencyKey(idempotencyHeader, idempotencyKey));
+        } catch (RuntimeException e) {
+            model.addAttribute(ERROR, errorMessage(e));
+            return dashboardView(principal, account.getId(), model);
+        }
+        return REDIRECT_DASHBOARD;
+    }
+
+    @PostMapping("/transfer")
+    public String transfer(@RequestParam String toUsername, @RequestParam BigDecimal amount,
+                           @RequestHeader(value = IDEMPOTENCY_HEADER, required = false) String idempotencyHeader,
+                           @RequestParam(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+                           Principal principal, Model model) {
+        Account account = accountService.findAccountByUsername(principal.getName());
+        try {
+            accountService.transferAmount(account, toUsername, amount, idempotencyKey(idempotencyHeader, idempotencyKey));
+        } catch (RuntimeException e) {
+            model.addAttribute(ERROR, errorMessage(e));
+            return dashboardView(principal, account.getId(), model);
+        }
+        return REDIRECT_DASHBOARD;
+    }
+
+    /**
+     * Pays many recipients from the signed-in account in one transaction. Each line needs
+     * {@code toUsername} and {@code amount}; any {@code fromUsername} given is ignored.
+     */
+    @PostMapping(value = "/transfers/bulk", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public ResponseEntity<BulkTransferResult> bulkTransfer(@RequestBody List<TransferInstruction> lines, Principal principal) {
+        List<TransferInstruction> fromCaller = lines.stream()
+                .map(line -> line == null ? null : new TransferInstruction(principal.getName(), line.toUsername(), line.amount()))
+                .toList();
+        try {
+            return ResponseEntity.ok(bulkTransferService.transfer(fromCaller));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    private String dashboardView(Principal principal, Long accountId, Model model) {
+        return dashboardView(pageCache.load(null, DASHBOARD_VIEW, accountId, null,
+                version -> summary(principal, accountId, version)), model);
+    }
+
+    private String dashboardView(String summary, Model model) {
+        // The forms' idempotency keys are minted in the browser, per submission, since a copy
+        // revalidated with a 304 can be open in several tabs
+        model.addAttribute(SUMMARY, summary);
+        return DASHBOARD_VIEW;
+    }
+
+    /**
+     * The service's own exceptions carry messages written for the user; anything else, such as
+     * a database failure, may describe internals and is shown as a generic failure.
+     */
+    private static String errorMessage(RuntimeException e) {
+        if (e instanceof InsufficientFundsException || e instanceof AccountNotFoundException
+                || e instanceof IdempotencyKeyReuseException || e instanceof IllegalArgumentException) {
+            return e.getMessage();
+        }
+        return OPERATION_FAILED;
+    }
+
+    private String summary(Principal principal, Long accountId, long version) {
+        return pageCache.fragment(AccountFragment.SUMMARY, accountId, version, null,
+                () -> Map.of(ACCOUNT, accountService.findAccountByUsername(principal.getName())));
+    }
+
+    /**
+     * The signed-in principal carries the account id, so revalidating a page needs no lookup.
+     */
+    private Long accountId(Principal principal) {
+        if (principal instanceof Authentication authentication
+                && authentication.getPrincipal() instanceof AccountPrincipal account && account.getId() != null) {
+            return account.getId();
+        }
+        return accountService.findAccountByUsername(principal.getName()).getId();
+    }
+
+    private static String idempotencyKey(String header, String formField) {
+        if (header != null && !header.isEmpty()) {
+            return header;
+        }
+        return formField == null || formField.isEmpty() ? null : formField;
+    }
+
+    @GetMapping("/transactions")
+    public String transactionHistory(@RequestParam(required = false) String cursor, Principal principal,
+                                     ServletWebRequest request, Model model) {
+        Long accountId = accountId(principal);
+        String history;
+        try {
+            history = pageCache.load(request, TRANSACTIONS_VIEW, accountId, cursor,
+                    version -> pageCache.fragment(AccountFragment.HISTORY, accountId, version, cursor,
+                            () -> historyModel(principal, cursor)));
+        } catch (IllegalArgumentException e) {
+            model.addAttribute(ERROR, INVALID_CURSOR);
+            return ERROR;
+        }
+        if (request.isNotModified()) {
+            return null;
+        }
+        model.addAttribute(HISTORY, history);
+        return TRANSACTIONS_VIEW;
+    }
+
+    private Map<String, Object> historyModel(Principal principal, String cursor) {
+        Account account = accountService.findAccountByUsername(principal.getName());
+        CursorPage<Transaction> page = accountService.getTransactionPage(account, cursor, HISTORY_PAGE_SIZE);
+        Map<String, Object> model = new HashMap<>();
+        model.put(TRANSACTIONS, page.getItems());
+        model.put(NEXT_CURSOR, page.getNextCursor());
+        return model;
+    }
+
+    @GetMapping("/statement")
+    public ResponseEntity<StreamingResponseBody> downloadStatement(@RequestParam(defaultValue = "csv") String format,
+                                                                   @RequestParam(defaultValue = "false") boolean gzip,
+                                                                   Principal principal) {
+        StatementFormat statementFormat;
+        try {
+            statementFormat = StatementFormat.fromParameter(format);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        Long accountId = accountService.findAccountByUsername(principal.getName()).getId();
+
+        // Written on an async thread, straight from the database cursor to the socket
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                GZIPOutputStream compressed = new GZIPOutputStream(out, GZIP_BUFFER_SIZE);
+                accountService.writeStatement(accountId, statementFormat, compressed);
+                compressed.finish();
+            } else {
+                accountService.writeStatement(accountId, statementFormat, out);
+            }
+        };
+
+        String filename = "statement-" + accountId + "." + statementFormat.getExtension() + (gzip ? ".gz" : "");
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .contentType(gzip ? GZIP : MediaType.parseMediaType(statementFormat.getContentType()))
+                .body(body);
+    }
 }
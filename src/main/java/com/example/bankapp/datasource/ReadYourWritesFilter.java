@@ -0,0 +1,93 @@
+package com.example.bankapp.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Keeps a session on the primary for a short window after it changed something, so the
+ * redirect after a deposit or transfer shows the new balance and history even while the
+ * replicas are still applying it.
+ * <p>
+ * Any successful non-GET request counts as a write. The time is kept in the HTTP session,
+ * so the window follows the user rather than the instance that handled the write. It is
+ * set before the request is handled: the session is saved when the response commits,
+ * which for a redirect is before this filter regains control, and the browser may follow
+ * the redirect straight away. A failed write restores the previous value; if its error
+ * response was already committed, the session just stays on the primary for one window.
+ * <p>
+ * Another instance may still serve the follow-up read from its near-cached copy of the
+ * session, taken before the write, until that copy expires. The session near-cache TTL plus
+ * the replicas' maximum lag must therefore fit in the window, which
+ * {@code ReplicaRoutingConfig} checks at startup.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    static final String LAST_WRITE_ATTRIBUTE = ReadYourWritesFilter.class.getName() + ".lastWrite";
+
+    private final long windowMillis;
+
+    public ReadYourWritesFilter(Duration window) {
+        this.windowMillis = window.toMillis();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean previous = ReplicaRouting.bindPrimaryOnly(wroteRecently(request) || ReplicaRouting.isPrimaryOnly());
+        HttpSession session = isWrite(request) ? request.getSession(false) : null;
+        Object lastWrite = session == null ? null : session.getAttribute(LAST_WRITE_ATTRIBUTE);
+        if (session != null) {
+            session.setAttribute(LAST_WRITE_ATTRIBUTE, System.currentTimeMillis());
+        }
+        boolean succeeded = false;
+        try {
+            chain.doFilter(request, response);
+            succeeded = response.getStatus() < 400;
+        } finally {
+            ReplicaRouting.bindPrimaryOnly(previous);
+            if (session != null) {
+                markWrite(session, succeeded, lastWrite);
+            }
+        }
+    }
+
+    /**
+     * Restarts the window at completion for a write that took a while, or restores the
+     * previous value after a failure. Reaches the store only if the response had not been
+     * committed yet.
+     */
+    private static void markWrite(HttpSession session, boolean succeeded, Object lastWrite) {
+        try {
+            if (succeeded) {
+                session.setAttribute(LAST_WRITE_ATTRIBUTE, System.currentTimeMillis());
+            } else if (lastWrite == null) {
+                session.removeAttribute(LAST_WRITE_ATTRIBUTE);
+            } else {
+                session.setAttribute(LAST_WRITE_ATTRIBUTE, lastWrite);
+            }
+        } catch (IllegalStateException e) {
+            // Invalidated while handling the request, e.g. by a sign-out
+        }
+    }
+
+    private boolean wroteRecently(HttpServletRequest request) {
+        HttpSession session = request.getSession(false);
+        if (session == null) {
+            return false;
+        }
+        Object lastWrite = session.getAttribute(LAST_WRITE_ATTRIBUTE);
+        return lastWrite instanceof Long millis && System.currentTimeMillis() - millis < windowMillis;
+    }
+
+    private static boolean isWrite(HttpServletRequest request) {
+        String method = request.getMethod();
+        return !"GET".equals(method) && !"HEAD".equals(method) && !"OPTIONS".equals(method);
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.bankapp.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Measures how far each replica is behind the primary and takes replicas out of rotation
+ * while they are behind by more than {@code maxLag}.
+ * <p>
+ * Every check reads this instance's heartbeat row from each replica, then writes a fresh
+ * heartbeat to the primary. A replica that has the latest beat is caught up; otherwise its
+ * lag is the age of the beat it has. Both timestamps come from this instance's clock, so
+ * clock skew between instances and database servers does not matter. A replica that cannot
+ * be queried counts as infinitely behind.
+ */
+public class ReplicaLagMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+    private static final long UNKNOWN = Long.MAX_VALUE;
+    private static final Duration STALE_HEARTBEAT = Duration.ofDays(1);
+
+    private final ReplicaSet replicaSet;
+    private final long maxLagMillis;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final JdbcTemplate primary;
+    private final Map<String, JdbcTemplate> replicas = new ConcurrentHashMap<>();
+    private final Map<String, Long> lagMillis = new ConcurrentHashMap<>();
+    private long lastBeat = -1;
+    private boolean purged;
+
+    public ReplicaLagMonitor(ReplicaSet replicaSet, Duration maxLag, MeterRegistry meterRegistry) {
+        this.replicaSet = replicaSet;
+        this.maxLagMillis = maxLag.toMillis();
+        this.primary = new JdbcTemplate(replicaSet.getPrimary());
+        for (Map.Entry<String, ? extends DataSource> replica : replicaSet.getReplicas().entrySet()) {
+            String name = replica.getKey();
+            JdbcTemplate template = new JdbcTemplate(replica.getValue());
+            template.setQueryTimeout(5);
+            replicas.put(name, template);
+            lagMillis.put(name, UNKNOWN);
+            Gauge.builder("bankapp.datasource.replica.lag", lagMillis, lags -> seconds(lags.get(name)))
+                    .description("Replication lag measured from heartbeats; NaN while unknown")
+                    .baseUnit("seconds")
+                    .tag("replica", name)
+                    .register(meterRegistry);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${bankapp.replica.lag-check-interval:PT1S}")
+    public synchronized void check() {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<String, JdbcTemplate> replica : replicas.entrySet()) {
+            long lag = measure(replica.getKey(), replica.getValue(), now);
+            lagMillis.put(replica.getKey(), lag);
+            boolean healthy = lag <= maxLagMillis;
+            if (healthy != replicaSet.isHealthy(replica.getKey())) {
+                log.info("Replica {} {} (lag {})", replica.getKey(), healthy ? "back in rotation" : "out of rotation",
+                        lag == UNKNOWN ? "unknown" : lag + "ms");
+            }
+            replicaSet.setHealthy(replica.getKey(), healthy);
+        }
+        beat(now);
+    }
+
+    private long measure(String name, JdbcTemplate replica, long now) {
+        try {
+            List<Long> beats = replica.queryForList(
+                    "select beat_at from replica_heartbeat where instance_id = ?", Long.class, instanceId);
+            if (beats.isEmpty()) {
+                return UNKNOWN;
+            }
+            long beat = beats.get(0);
+            return beat == lastBeat ? 0 : Math.max(0, now - beat);
+        } catch (DataAccessException e) {
+            log.debug("Could not read heartbeat from replica {}", name, e);
+            return UNKNOWN;
+        }
+    }
+
+    private void beat(long now) {
+        try {
+            if (!purged) {
+                // Rows left behind by instances that have since gone away
+                primary.update("delete from replica_heartbeat where beat_at < ?", now - STALE_HEARTBEAT.toMillis());
+                purged = true;
+            }
+            if (primary.update("update replica_heartbeat set beat_at = ? where instance_id = ?", now, instanceId) == 0) {
+                primary.update("insert into replica_heartbeat (instance_id, beat_at) values (?, ?)", instanceId, now);
+            }
+            lastBeat = now;
+        } catch (DataAccessException e) {
+            log.warn("Could not write replication heartbeat to the primary", e);
+        }
+    }
+
+    private static double seconds(Long millis) {
+        return millis == null || millis == UNKNOWN ? Double.NaN : millis / 1000.0;
+    }
+}
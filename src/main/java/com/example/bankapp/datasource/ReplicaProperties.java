@@ -0,0 +1,30 @@
+package com.example.bankapp.datasource;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Read replicas for read-only transactions.
+ *
+ * @param urls                  JDBC URLs of the replicas
+ * @param username              replica user, defaults to {@code spring.datasource.username}
+ * @param password              replica password, defaults to {@code spring.datasource.password}
+ * @param maxLag                replicas further behind than this are skipped
+ * @param readYourWritesWindow  how long after a write a session reads from the primary only; must
+ *                              cover the session near-cache TTL plus {@code maxLag}
+ */
+@ConfigurationProperties("bankapp.replica")
+public record ReplicaProperties(@DefaultValue("false") boolean enabled,
+                                List<String> urls,
+                                String username,
+                                String password,
+                                @DefaultValue("2s") Duration maxLag,
+                                @DefaultValue("5s") Duration readYourWritesWindow) {
+
+    public ReplicaProperties {
+        urls = urls == null ? List.of() : List.copyOf(urls);
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.bankapp.datasource;
+
+/**
+ * Thread-bound override that keeps read-only transactions on the primary, for a user who
+ * has just written and must see their own change.
+ */
+public final class ReplicaRouting {
+
+    private static final ThreadLocal<Boolean> PRIMARY_ONLY = new ThreadLocal<>();
+
+    private ReplicaRouting() {
+    }
+
+    public static boolean isPrimaryOnly() {
+        return PRIMARY_ONLY.get() != null;
+    }
+
+    /**
+     * Sets or clears the override and returns whether it was set before.
+     */
+    public static boolean bindPrimaryOnly(boolean primaryOnly) {
+        boolean previous = isPrimaryOnly();
+        if (primaryOnly) {
+            PRIMARY_ONLY.set(Boolean.TRUE);
+        } else {
+            PRIMARY_ONLY.remove();
+        }
+        return previous;
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.bankapp.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Sends connections for read-only transactions to a healthy replica and everything else to
+ * the primary. Read-write transactions, non-transactional calls, {@link ReplicaRouting}
+ * overrides and the case where every replica lags too far all use the primary.
+ * <p>
+ * The routing decision reads the transaction's read-only flag, which is only set after the
+ * transaction manager has begun, so this must sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy} that defers
+ * taking the physical connection to the first statement.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARY = "primary";
+
+    private final ReplicaSet replicaSet;
+    private final Counter replicaReads;
+    private final Counter primaryFallbacks;
+
+    public ReplicaRoutingDataSource(ReplicaSet replicaSet, MeterRegistry meterRegistry) {
+        this.replicaSet = replicaSet;
+        Map<Object, Object> targets = new HashMap<>(replicaSet.getReplicas());
+        targets.put(PRIMARY, replicaSet.getPrimary());
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(replicaSet.getPrimary());
+        setLenientFallback(false);
+        afterPropertiesSet();
+
+        this.replicaReads = Counter.builder("bankapp.datasource.reads")
+                .description("Read-only transactions by where they were served")
+                .tag("target", "replica")
+                .register(meterRegistry);
+        this.primaryFallbacks = Counter.builder("bankapp.datasource.reads")
+                .description("Read-only transactions by where they were served")
+                .tag("target", "primary")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || ReplicaRouting.isPrimaryOnly()) {
+            return PRIMARY;
+        }
+        String replica = replicaSet.nextHealthy();
+        if (replica == null) {
+            primaryFallbacks.increment();
+            return PRIMARY;
+        }
+        replicaReads.increment();
+        return replica;
+    }
+}
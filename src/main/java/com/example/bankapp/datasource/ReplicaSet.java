@@ -0,0 +1,72 @@
+package com.example.bankapp.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The primary pool and the replica pools, plus which replicas are currently close enough
+ * to the primary to serve reads. Replicas start out unhealthy until their lag is measured.
+ */
+public class ReplicaSet implements AutoCloseable {
+
+    private final HikariDataSource primary;
+    private final Map<String, HikariDataSource> replicas;
+    private final AtomicInteger next = new AtomicInteger();
+    private volatile List<String> healthy = List.of();
+
+    public ReplicaSet(HikariDataSource primary, Map<String, HikariDataSource> replicas) {
+        this.primary = primary;
+        this.replicas = Collections.unmodifiableMap(new LinkedHashMap<>(replicas));
+    }
+
+    public DataSource getPrimary() {
+        return primary;
+    }
+
+    public Map<String, ? extends DataSource> getReplicas() {
+        return replicas;
+    }
+
+    /**
+     * Round-robins over the healthy replicas.
+     *
+     * @return the replica name, or {@code null} when none is healthy
+     */
+    public String nextHealthy() {
+        List<String> candidates = healthy;
+        if (candidates.isEmpty()) {
+            return null;
+        }
+        return candidates.get(Math.floorMod(next.getAndIncrement(), candidates.size()));
+    }
+
+    public boolean isHealthy(String name) {
+        return healthy.contains(name);
+    }
+
+    synchronized void setHealthy(String name, boolean isHealthy) {
+        if (isHealthy == healthy.contains(name)) {
+            return;
+        }
+        List<String> updated = new ArrayList<>();
+        for (String replica : replicas.keySet()) {
+            if (replica.equals(name) ? isHealthy : healthy.contains(replica)) {
+                updated.add(replica);
+            }
+        }
+        healthy = List.copyOf(updated);
+    }
+
+    @Override
+    public void close() {
+        replicas.values().forEach(HikariDataSource::close);
+        primary.close();
+    }
+}
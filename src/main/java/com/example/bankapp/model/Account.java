@@ -9,6 +9,7 @@ import java.util.Collection;
 import java.util.List;
 
 @Entity
+@Table(indexes = @Index(name = "idx_account_username", columnList = "username"))
 public class Account implements UserDetails {
 
     @Id
@@ -24,6 +25,10 @@ public class Account implements UserDetails {
     @Transient
     private Collection<? extends GrantedAuthority> authorities;
 
+    // Current balance when balances come from the ledger; the column then keeps the opening balance
+    @Transient
+    private BigDecimal derivedBalance;
+
     public Account() {
 
     }
@@ -70,11 +75,25 @@ public class Account implements UserDetails {
     }
 
     public BigDecimal getBalance() {
-        return balance;
+        return derivedBalance != null ? derivedBalance : balance;
     }
 
+    /**
+     * Once a derived balance is set, changes go to it and the mapped column is left alone.
+     */
     public void setBalance(BigDecimal balance) {
-        this.balance = balance;
+        if (derivedBalance != null) {
+            this.derivedBalance = balance;
+        } else {
+            this.balance = balance;
+        }
+    }
+
+    /**
+     * Shows {@code balance} without marking the entity dirty, for balances derived from the ledger.
+     */
+    public void setDerivedBalance(BigDecimal balance) {
+        this.derivedBalance = balance;
     }
 
     public List<Transaction> getTransactions() {
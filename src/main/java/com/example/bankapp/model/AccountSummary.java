@@ -0,0 +1,16 @@
+package com.example.bankapp.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Read-only projection of an {@link Account} row for listings: no password hash and no
+ * transaction collection.
+ */
+public interface AccountSummary {
+
+    Long getId();
+
+    String getUsername();
+
+    BigDecimal getBalance();
+}
@@ -0,0 +1,52 @@
+package com.example.bankapp.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import java.time.LocalDateTime;
+
+/**
+ * Counts the changes to an account's balance, username or history, so pages showing the
+ * account can be revalidated with one primary-key read. Accounts that have not changed
+ * since versions were introduced have no row and are at version 0.
+ */
+@Entity
+@Table(name = "account_version")
+public class AccountVersion {
+
+    @Id
+    @Column(name = "account_id")
+    private Long accountId;
+
+    @Column(nullable = false)
+    private long version;
+
+    @Column(name = "modified_at")
+    private LocalDateTime modifiedAt;
+
+    protected AccountVersion() {
+    }
+
+    public AccountVersion(Long accountId, long version, LocalDateTime modifiedAt) {
+        this.accountId = accountId;
+        this.version = version;
+        this.modifiedAt = modifiedAt;
+    }
+
+    public Long getAccountId() {
+        return accountId;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return when the account last changed, or {@code null} at version 0
+     */
+    public LocalDateTime getModifiedAt() {
+        return modifiedAt;
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.bankapp.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * An account's balance including every ledger entry created up to {@link #getAsOf()}.
+ * The current balance is the snapshot plus the entries created after it. Accounts without
+ * a snapshot start from the opening balance in {@code account.balance}.
+ */
+@Entity
+@Table(name = "balance_snapshot")
+public class BalanceSnapshot {
+
+    @Id
+    @Column(name = "account_id")
+    private Long accountId;
+
+    @Column(nullable = false)
+    private BigDecimal balance;
+
+    @Column(name = "as_of", nullable = false)
+    private LocalDateTime asOf;
+
+    protected BalanceSnapshot() {
+    }
+
+    public BalanceSnapshot(Long accountId, BigDecimal balance, LocalDateTime asOf) {
+        this.accountId = accountId;
+        this.balance = balance;
+        this.asOf = asOf;
+    }
+
+    public Long getAccountId() {
+        return accountId;
+    }
+
+    public BigDecimal getBalance() {
+        return balance;
+    }
+
+    public LocalDateTime getAsOf() {
+        return asOf;
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.bankapp.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/**
+ * Shared HTTP session row. Mapped only so the schema is managed with the rest; it is read
+ * and written with plain JDBC by {@link com.example.bankapp.session.SharedSessionRepository}.
+ */
+@Entity
+@Table(name = "http_session", indexes = @Index(name = "idx_http_session_expiry", columnList = "expiry_time"))
+public class HttpSessionRecord {
+
+    @Id
+    @Column(name = "session_id", length = 64)
+    private String sessionId;
+
+    @Column(name = "principal_name")
+    private String principalName;
+
+    /** Epoch milliseconds, as are the other times. */
+    @Column(name = "creation_time", nullable = false)
+    private long creationTime;
+
+    @Column(name = "last_access_time", nullable = false)
+    private long lastAccessTime;
+
+    @Column(name = "max_inactive_seconds", nullable = false)
+    private int maxInactiveSeconds;
+
+    @Column(name = "expiry_time", nullable = false)
+    private long expiryTime;
+
+    /** Attributes in the compact encoding of {@link com.example.bankapp.session.SessionAttributeCodec}. */
+    @Column(name = "attributes", nullable = false, length = 65535)
+    private byte[] attributes;
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public String getPrincipalName() {
+        return principalName;
+    }
+
+    public long getCreationTime() {
+        return creationTime;
+    }
+
+    public long getLastAccessTime() {
+        return lastAccessTime;
+    }
+
+    public int getMaxInactiveSeconds() {
+        return maxInactiveSeconds;
+    }
+
+    public long getExpiryTime() {
+        return expiryTime;
+    }
+
+    public byte[] getAttributes() {
+        return attributes;
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.bankapp.model;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outcome of a money-moving request that carried an idempotency key.
+ * <p>
+ * The id is the client's key scoped to the account, so keys from different users never
+ * collide. Records are always new when saved, and {@link Persistable} tells Spring Data so,
+ * which makes {@code save} a plain INSERT instead of a select followed by an insert.
+ */
+@Entity
+@Table(name = "idempotency_record", indexes = @Index(name = "idx_idempotency_created_at", columnList = "created_at"))
+public class IdempotencyRecord implements Persistable<String> {
+
+    @Id
+    @Column(length = 100)
+    private String id;
+    private String fingerprint;
+    private Long transactionId;
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Transient
+    private boolean newRecord = true;
+
+    public IdempotencyRecord() {
+
+    }
+
+    public IdempotencyRecord(String id, String fingerprint, Long transactionId, LocalDateTime createdAt) {
+        this.id = id;
+        this.fingerprint = fingerprint;
+        this.transactionId = transactionId;
+        this.createdAt = createdAt;
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public boolean isNew() {
+        return newRecord;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        newRecord = false;
+    }
+
+    /** Operation and parameters of the original request, to detect a key reused for something else. */
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    /** Ledger entry written by the original request. */
+    public Long getTransactionId() {
+        return transactionId;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.bankapp.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One side of a balanced posting in the append-only ledger. Every deposit, withdrawal and
+ * transfer writes entries whose amounts sum to zero; credits are positive, debits negative.
+ * Money entering or leaving the bank is booked against {@link #EXTERNAL_ACCOUNT_ID}.
+ * Entries are never updated or deleted.
+ */
+@Entity
+@Table(name = "ledger_entry", indexes = {
+        @Index(name = "idx_ledger_entry_account_created", columnList = "account_id, created_at"),
+        @Index(name = "idx_ledger_entry_created", columnList = "created_at")
+})
+public class LedgerEntry {
+
+    /** Contra account for deposits and withdrawals; has no {@link Account} row. */
+    public static final long EXTERNAL_ACCOUNT_ID = 0L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "ledger_entry_ids")
+    @TableGenerator(name = "ledger_entry_ids", table = "id_generator", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "ledger_entry", allocationSize = Transaction.ID_ALLOCATION_SIZE)
+    private Long id;
+
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+
+    @Column(nullable = false)
+    private BigDecimal amount;
+
+    /** The customer-facing history row this entry belongs to, if any. */
+    @Column(name = "transaction_id")
+    private Long transactionId;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    protected LedgerEntry() {
+    }
+
+    public LedgerEntry(Long accountId, BigDecimal amount, Long transactionId, LocalDateTime createdAt) {
+        this.accountId = accountId;
+        this.amount = amount;
+        this.transactionId = transactionId;
+        this.createdAt = createdAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getAccountId() {
+        return accountId;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public Long getTransactionId() {
+        return transactionId;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.bankapp.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Heartbeat row each instance writes to the primary and reads back from every replica to
+ * measure replication lag. Mapped only so the schema is managed with the rest; it is read
+ * and written with plain JDBC against specific pools.
+ */
+@Entity
+@Table(name = "replica_heartbeat")
+public class ReplicaHeartbeat {
+
+    @Id
+    @Column(name = "instance_id", length = 64)
+    private String instanceId;
+
+    /** Epoch milliseconds on the writing instance's clock. */
+    @Column(name = "beat_at")
+    private long beatAt;
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    public long getBeatAt() {
+        return beatAt;
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.bankapp.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Read-only row of an account statement, selected directly from the transaction table
+ * so exports never build or track {@link Transaction} entities.
+ */
+public record StatementLine(Long id, LocalDateTime timestamp, String type, BigDecimal amount) {
+}
@@ -0,0 +1,120 @@
+package com.example.bankapp.monitoring;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Set;
+
+/**
+ * JDK-proxy wrapper around a {@link DataSource} that adds statement executions, rows read
+ * and JDBC time to the {@link SqlProfile} bound to the calling thread.
+ * <p>
+ * With no profile bound the proxies only delegate. {@code unwrap} and {@code isWrapperFor}
+ * reach the wrapped pool, so pool-specific metrics and health checks keep working.
+ */
+public final class ProfilingDataSource {
+
+    private static final Set<String> EXECUTE_METHODS = Set.of(
+            "execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    private ProfilingDataSource() {
+    }
+
+    public static DataSource wrap(DataSource target) {
+        if (Proxy.isProxyClass(target.getClass()) && Proxy.getInvocationHandler(target) instanceof DataSourceHandler) {
+            return target;
+        }
+        return proxy(DataSource.class, new DataSourceHandler(target));
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(ProfilingDataSource.class.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private record DataSourceHandler(DataSource target) implements InvocationHandler {
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = ProfilingDataSource.invoke(target, method, args);
+            if (result instanceof Connection connection && method.getName().equals("getConnection")) {
+                return proxy(Connection.class, new ConnectionHandler(connection));
+            }
+            return result;
+        }
+    }
+
+    private record ConnectionHandler(Connection target) implements InvocationHandler {
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = ProfilingDataSource.invoke(target, method, args);
+            if (result instanceof CallableStatement statement) {
+                return proxy(CallableStatement.class, new StatementHandler(statement));
+            }
+            if (result instanceof PreparedStatement statement) {
+                return proxy(PreparedStatement.class, new StatementHandler(statement));
+            }
+            if (result instanceof Statement statement && method.getName().equals("createStatement")) {
+                return proxy(Statement.class, new StatementHandler(statement));
+            }
+            return result;
+        }
+    }
+
+    private record StatementHandler(Statement target) implements InvocationHandler {
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            SqlProfile profile = SqlProfiler.current();
+            String name = method.getName();
+            if (profile == null) {
+                Object result = ProfilingDataSource.invoke(target, method, args);
+                return result instanceof ResultSet resultSet ? wrapResultSet(resultSet) : result;
+            }
+
+            boolean execute = EXECUTE_METHODS.contains(name);
+            long start = execute ? System.nanoTime() : 0;
+            Object result = ProfilingDataSource.invoke(target, method, args);
+            if (execute) {
+                profile.statement(System.nanoTime() - start);
+            }
+            return result instanceof ResultSet resultSet ? wrapResultSet(resultSet) : result;
+        }
+
+        private static ResultSet wrapResultSet(ResultSet resultSet) {
+            return proxy(ResultSet.class, new ResultSetHandler(resultSet));
+        }
+    }
+
+    private record ResultSetHandler(ResultSet target) implements InvocationHandler {
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            SqlProfile profile = SqlProfiler.current();
+            if (profile == null || !method.getName().equals("next")) {
+                return ProfilingDataSource.invoke(target, method, args);
+            }
+            // next() may go back to the server for the next fetch block, so it is timed too
+            long start = System.nanoTime();
+            Object result = ProfilingDataSource.invoke(target, method, args);
+            long elapsed = System.nanoTime() - start;
+            if (Boolean.TRUE.equals(result)) {
+                profile.row(elapsed);
+            } else {
+                profile.fetch(elapsed);
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.bankapp.monitoring;
+
+/**
+ * SQL round trips, rows read and time spent in JDBC for one unit of work, usually one
+ * HTTP request. Updated by one thread at a time; work handed to another thread (e.g. an
+ * account lane) carries the profile along and hands it back before the caller resumes.
+ */
+public class SqlProfile {
+
+    private long statements;
+    private long rows;
+    private long nanos;
+
+    void statement(long elapsedNanos) {
+        statements++;
+        nanos += elapsedNanos;
+    }
+
+    void row(long elapsedNanos) {
+        rows++;
+        nanos += elapsedNanos;
+    }
+
+    void fetch(long elapsedNanos) {
+        nanos += elapsedNanos;
+    }
+
+    /** Statements executed; a JDBC batch counts as one round trip. */
+    public long getStatements() {
+        return statements;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+
+    @Override
+    public String toString() {
+        return statements + " statements, " + rows + " rows, " + nanos / 1_000_000 + " ms";
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.bankapp.monitoring;
+
+/**
+ * Thread-bound {@link SqlProfile}. JDBC calls made through a {@link ProfilingDataSource}
+ * are added to the profile bound to the calling thread, if any.
+ */
+public final class SqlProfiler {
+
+    private static final ThreadLocal<SqlProfile> CURRENT = new ThreadLocal<>();
+
+    private SqlProfiler() {
+    }
+
+    public static SqlProfile current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Binds {@code profile} (or unbinds when {@code null}) and returns what was bound before,
+     * for code that runs work on behalf of another thread.
+     */
+    public static SqlProfile bind(SqlProfile profile) {
+        SqlProfile previous = CURRENT.get();
+        if (profile == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(profile);
+        }
+        return previous;
+    }
+
+    /**
+     * Runs {@code work} under a fresh profile and returns that profile.
+     */
+    public static SqlProfile profile(Runnable work) {
+        SqlProfile profile = new SqlProfile();
+        SqlProfile previous = bind(profile);
+        try {
+            work.run();
+        } finally {
+            bind(previous);
+        }
+        return profile;
+    }
+}
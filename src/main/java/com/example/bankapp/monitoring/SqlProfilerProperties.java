@@ -0,0 +1,26 @@
+package com.example.bankapp.monitoring;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.Map;
+
+/**
+ * Per-request SQL statement budgets.
+ *
+ * @param defaultBudget statements allowed for endpoints without their own budget
+ * @param budgets       statements allowed per endpoint, keyed by URI pattern, e.g. {@code budgets[/transactions]=3}
+ */
+@ConfigurationProperties("bankapp.sql-profiler")
+public record SqlProfilerProperties(@DefaultValue("true") boolean enabled,
+                                    @DefaultValue("20") int defaultBudget,
+                                    Map<String, Integer> budgets) {
+
+    public SqlProfilerProperties {
+        budgets = budgets == null ? Map.of() : Map.copyOf(budgets);
+    }
+
+    public int budgetFor(String uri) {
+        return budgets.getOrDefault(uri, defaultBudget);
+    }
+}
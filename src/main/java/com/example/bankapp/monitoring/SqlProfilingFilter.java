@@ -0,0 +1,103 @@
+package com.example.bankapp.monitoring;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Profiles the SQL each request runs, including authentication done by the security
+ * filters, and publishes it per endpoint:
+ * {@code bankapp.request.sql.statements}, {@code bankapp.request.sql.rows},
+ * {@code bankapp.request.sql.time} and {@code bankapp.request.sql.budget.exceeded}.
+ * Requests over their statement budget are logged at WARN.
+ * <p>
+ * Endpoints are identified by method and URI pattern; requests that did not reach a
+ * controller share the {@code UNMAPPED} pattern to keep tag cardinality bounded.
+ */
+public class SqlProfilingFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(SqlProfilingFilter.class);
+    private static final String UNMAPPED = "UNMAPPED";
+
+    private final MeterRegistry meterRegistry;
+    private final SqlProfilerProperties properties;
+    private final Map<String, EndpointMeters> meters = new ConcurrentHashMap<>();
+
+    public SqlProfilingFilter(MeterRegistry meterRegistry, SqlProfilerProperties properties) {
+        this.meterRegistry = meterRegistry;
+        this.properties = properties;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        SqlProfile profile = new SqlProfile();
+        SqlProfile previous = SqlProfiler.bind(profile);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            SqlProfiler.bind(previous);
+            record(request, profile);
+        }
+    }
+
+    private void record(HttpServletRequest request, SqlProfile profile) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : UNMAPPED;
+        String method = request.getMethod();
+        EndpointMeters endpoint = meters.computeIfAbsent(method + ' ' + uri, key -> new EndpointMeters(method, uri));
+
+        endpoint.statements.record(profile.getStatements());
+        endpoint.rows.record(profile.getRows());
+        endpoint.time.record(profile.getNanos(), TimeUnit.NANOSECONDS);
+
+        int budget = properties.budgetFor(uri);
+        if (profile.getStatements() > budget) {
+            endpoint.overBudget.increment();
+            log.warn("{} {} exceeded its SQL budget of {} statements: {}", method, uri, budget, profile);
+        }
+    }
+
+    private final class EndpointMeters {
+        private final DistributionSummary statements;
+        private final DistributionSummary rows;
+        private final Timer time;
+        private final Counter overBudget;
+
+        EndpointMeters(String method, String uri) {
+            this.statements = DistributionSummary.builder("bankapp.request.sql.statements")
+                    .description("SQL statements executed per request")
+                    .tags("method", method, "uri", uri)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+            this.rows = DistributionSummary.builder("bankapp.request.sql.rows")
+                    .description("Result set rows read per request")
+                    .tags("method", method, "uri", uri)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+            this.time = Timer.builder("bankapp.request.sql.time")
+                    .description("Time spent in JDBC per request")
+                    .tags("method", method, "uri", uri)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+            this.overBudget = Counter.builder("bankapp.request.sql.budget.exceeded")
+                    .description("Requests that ran more SQL statements than their budget")
+                    .tags("method", method, "uri", uri)
+                    .register(meterRegistry);
+        }
+    }
+}
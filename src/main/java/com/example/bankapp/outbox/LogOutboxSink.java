@@ -0,0 +1,25 @@
+package com.example.bankapp.outbox;
+
+import com.example.bankapp.model.OutboxEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+/**
+ * Writes one line per event to the {@code bankapp.outbox} logger, which the logging
+ * configuration can route to its own file for downstream shippers to tail.
+ */
+public class LogOutboxSink implements OutboxSink {
+
+    private static final Logger events = LoggerFactory.getLogger("bankapp.outbox");
+
+    @Override
+    public void publish(List<OutboxEvent> batch) {
+        for (OutboxEvent event : batch) {
+            events.info("id={} account={} transaction={} type=\"{}\" amount={} occurredAt={}",
+                    event.getId(), event.getAccountId(), event.getTransactionId(), event.getType(),
+                    event.getAmount().toPlainString(), event.getOccurredAt());
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.bankapp.outbox;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Transactional outbox for transaction events, see {@link OutboxRelay}.
+ *
+ * @param sink          where events go: {@code log} (the {@code bankapp.outbox} logger) or
+ *                      {@code queue} (an in-memory queue standing in for a broker)
+ * @param batchSize     events delivered per relay transaction
+ * @param queueCapacity events the {@code queue} sink holds before it refuses a batch
+ */
+@ConfigurationProperties("bankapp.outbox")
+public record OutboxProperties(@DefaultValue("true") boolean enabled,
+                               @DefaultValue("log") String sink,
+                               @DefaultValue("500") int batchSize,
+                               @DefaultValue("10000") int queueCapacity) {
+}
@@ -0,0 +1,21 @@
+package com.example.bankapp.outbox;
+
+import com.example.bankapp.model.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * Destination of relayed events. Delivery is at least once: a batch that throws is offered
+ * again on the next run, and a batch that was delivered may be offered again if the relay
+ * fails to remove it afterwards. Consumers de-duplicate on {@link OutboxEvent#getId()}.
+ */
+public interface OutboxSink {
+
+    /**
+     * Delivers a batch in the order described on {@link OutboxRelay}: by recording time, which
+     * is not commit order, so consumers must not rely on the order of one account's events.
+     *
+     * @throws RuntimeException if the batch was not (or not entirely) delivered
+     */
+    void publish(List<OutboxEvent> events);
+}
@@ -0,0 +1,35 @@
+package com.example.bankapp.outbox;
+
+import com.example.bankapp.model.OutboxEvent;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Bounded in-memory queue standing in for a message broker. A batch is accepted whole or
+ * not at all, so a full queue leaves the batch in the outbox for the next run.
+ */
+public class QueueOutboxSink implements OutboxSink {
+
+    private final BlockingQueue<OutboxEvent> queue;
+
+    public QueueOutboxSink(int capacity) {
+        this.queue = new LinkedBlockingQueue<>(capacity);
+    }
+
+    @Override
+    public synchronized void publish(List<OutboxEvent> events) {
+        if (queue.remainingCapacity() < events.size()) {
+            throw new IllegalStateException("Outbox queue is full");
+        }
+        queue.addAll(events);
+    }
+
+    /**
+     * The consumer side.
+     */
+    public BlockingQueue<OutboxEvent> getQueue() {
+        return queue;
+    }
+}
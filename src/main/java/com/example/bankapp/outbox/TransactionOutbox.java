@@ -0,0 +1,49 @@
+package com.example.bankapp.outbox;
+
+import com.example.bankapp.model.OutboxEvent;
+import com.example.bankapp.model.Transaction;
+import com.example.bankapp.repository.OutboxEventRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Writes an {@link OutboxEvent} for each recorded {@link Transaction}. Call it in the
+ * transaction that saves the history rows, after they have their ids; the events then
+ * commit or roll back together with them and go out in the same JDBC batch. Events of one
+ * call share a timestamp and are relayed in the order given.
+ */
+@Component
+public class TransactionOutbox {
+
+    private final OutboxEventRepository repository;
+    private final boolean enabled;
+
+    public TransactionOutbox(OutboxEventRepository repository,
+                             @Value("${bankapp.outbox.enabled:true}") boolean enabled) {
+        this.repository = repository;
+        this.enabled = enabled;
+    }
+
+    public void record(Transaction transaction) {
+        recordAll(List.of(transaction));
+    }
+
+    public void recordAll(Collection<Transaction> transactions) {
+        if (!enabled || transactions.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> events = new ArrayList<>(transactions.size());
+        for (Transaction transaction : transactions) {
+            // The account is usually a lazy reference; reading its id does not load it
+            events.add(new OutboxEvent(transaction.getAccount().getId(), transaction.getId(), transaction.getType(),
+                    transaction.getAmount(), transaction.getTimestamp(), now));
+        }
+        repository.saveAll(events);
+    }
+}
@@ -1,10 +1,108 @@
 package com.example.bankapp.repository;
 
 import com.example.bankapp.model.Account;
+import com.example.bankapp.model.AccountPrincipal;
+import com.example.bankapp.model.AccountSummary;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface AccountRepository extends JpaRepository<Account, Long> {
     Optional<Account> findByUsername(String username);
-}
\ No newline at end of file
+
+    @Query("select a.id from Account a where a.username = :username")
+    Optional<Long> findIdByUsername(@Param("username") String username);
+
+    @Query("select a.id as id, a.username as username, a.balance as balance from Account a where a.id = :id")
+    Optional<AccountSummary> findSummaryById(@Param("id") Long id);
+
+    /**
+     * Resolves many usernames in one IN query. Returns projections rather than entities so a
+     * later locking read of the same rows is not served from the persistence context.
+     */
+    @Query("select a.id as id, a.username as username, a.balance as balance from Account a where a.username in :usernames")
+    List<AccountSummary> findSummariesByUsernameIn(@Param("usernames") Collection<String> usernames);
+
+    /**
+     * Locks all given rows with one {@code SELECT ... ORDER BY id FOR UPDATE}, so rows are
+     * locked in ascending id order like {@link #findByIdForUpdate}.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select a from Account a where a.id in :ids order by a.id")
+    List<Account> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Locks the given rows in id order without loading them, for writers that check a
+     * balance but do not update the row.
+     *
+     * @return the ids that exist, in ascending order
+     */
+    @Query(value = "select id from account where id in (:ids) order by id for update", nativeQuery = true)
+    List<Long> lockIdsForUpdate(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Reads only the columns needed to authenticate, without materialising an entity.
+     */
+    @Query("select new com.example.bankapp.model.AccountPrincipal(a.id, a.username, a.password) from Account a where a.username = :username")
+    Optional<AccountPrincipal> findPrincipalByUsername(@Param("username") String username);
+
+    /**
+     * Loads the account and holds a row lock ({@code SELECT ... FOR UPDATE}) until the
+     * surrounding transaction ends. Callers locking several rows must do so in id order.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select a from Account a where a.id = :id")
+    Optional<Account> findByIdForUpdate(@Param("id") Long id);
+
+    /**
+     * Id-ordered page of account summaries starting after {@code afterId}. Keyset paging on the
+     * primary key, so every page costs the same regardless of how deep it is.
+     */
+    @Query("select a.id as id, a.username as username, a.balance as balance from Account a"
+            + " where a.id > :afterId order by a.id")
+    List<AccountSummary> findSummariesAfter(@Param("afterId") Long afterId, Pageable limit);
+
+    /**
+     * As {@link #findSummariesAfter}, restricted to usernames matching {@code pattern}, a LIKE
+     * pattern escaped with {@code !}.
+     */
+    @Query("select a.id as id, a.username as username, a.balance as balance from Account a"
+            + " where a.username like :pattern escape '!' and a.id > :afterId order by a.id")
+    List<AccountSummary> findSummariesByUsernameLikeAfter(@Param("pattern") String pattern, @Param("afterId") Long afterId,
+                                                          Pageable limit);
+
+    @Transactional
+    @Modifying
+    @Query("update Account a set a.password = :password where a.username = :username")
+    int updatePassword(@Param("username") String username, @Param("password") String password);
+
+    /**
+     * Adds {@code amount} to the balance in a single statement.
+     *
+     * @return the number of rows updated, 0 when the account does not exist
+     */
+    @Transactional
+    @Modifying
+    @Query("update Account a set a.balance = a.balance + :amount where a.id = :id")
+    int incrementBalance(@Param("id") Long id, @Param("amount") BigDecimal amount);
+
+    /**
+     * Subtracts {@code amount} from the balance only if it stays non-negative.
+     *
+     * @return the number of rows updated, 0 when funds are insufficient or the account does not exist
+     */
+    @Transactional
+    @Modifying
+    @Query("update Account a set a.balance = a.balance - :amount where a.id = :id and a.balance >= :amount")
+    int decrementBalanceIfSufficient(@Param("id") Long id, @Param("amount") BigDecimal amount);
+}
@@ -0,0 +1,10 @@
+package com.example.bankapp.repository;
+
+import com.example.bankapp.model.AccountVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+/**
+ * Reads only; versions are moved by {@link com.example.bankapp.service.AccountVersions}.
+ */
+public interface AccountVersionRepository extends JpaRepository<AccountVersion, Long> {
+}
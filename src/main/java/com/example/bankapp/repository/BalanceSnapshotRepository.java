@@ -0,0 +1,17 @@
+package com.example.bankapp.repository;
+
+import com.example.bankapp.model.BalanceSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface BalanceSnapshotRepository extends JpaRepository<BalanceSnapshot, Long> {
+
+    /**
+     * The newest fold cutoff written by any instance.
+     */
+    @Query("select max(s.asOf) from BalanceSnapshot s")
+    Optional<LocalDateTime> findLatestAsOf();
+}
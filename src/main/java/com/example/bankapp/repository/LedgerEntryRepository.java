@@ -0,0 +1,53 @@
+package com.example.bankapp.repository;
+
+import com.example.bankapp.model.LedgerEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface LedgerEntryRepository extends JpaRepository<LedgerEntry, Long> {
+
+    /** Start of time for accounts without a snapshot. */
+    LocalDateTime BEGINNING = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    /**
+     * Current balance: the snapshot (or the opening balance) plus the entries created since,
+     * read with one range scan of the (account_id, created_at) index.
+     */
+    @Query("select coalesce(s.balance, a.balance) + coalesce((select sum(e.amount) from LedgerEntry e"
+            + " where e.accountId = a.id and e.createdAt > coalesce(s.asOf, :beginning)), 0)"
+            + " from Account a left join BalanceSnapshot s on s.accountId = a.id where a.id = :id")
+    Optional<BigDecimal> findBalance(@Param("id") Long id, @Param("beginning") LocalDateTime beginning);
+
+    /**
+     * As {@link #findBalance} for many accounts; each row is {@code [accountId, balance]}.
+     */
+    @Query("select a.id, coalesce(s.balance, a.balance) + coalesce((select sum(e.amount) from LedgerEntry e"
+            + " where e.accountId = a.id and e.createdAt > coalesce(s.asOf, :beginning)), 0)"
+            + " from Account a left join BalanceSnapshot s on s.accountId = a.id where a.id in :ids")
+    List<Object[]> findBalances(@Param("ids") Collection<Long> ids, @Param("beginning") LocalDateTime beginning);
+
+    /**
+     * Balances including only entries created up to {@code cutoff}, for accounts whose
+     * snapshot is older than {@code cutoff}; each row is {@code [accountId, balance]}.
+     */
+    @Query("select a.id, coalesce(s.balance, a.balance) + coalesce((select sum(e.amount) from LedgerEntry e"
+            + " where e.accountId = a.id and e.createdAt > coalesce(s.asOf, :beginning) and e.createdAt <= :cutoff), 0)"
+            + " from Account a left join BalanceSnapshot s on s.accountId = a.id"
+            + " where a.id in :ids and (s.asOf is null or s.asOf < :cutoff)")
+    List<Object[]> findBalancesAt(@Param("ids") Collection<Long> ids, @Param("cutoff") LocalDateTime cutoff,
+                                  @Param("beginning") LocalDateTime beginning);
+
+    /**
+     * Accounts (other than the external contra account) with entries created in {@code (after, upTo]}.
+     */
+    @Query("select distinct e.accountId from LedgerEntry e"
+            + " where e.createdAt > :after and e.createdAt <= :upTo and e.accountId <> " + LedgerEntry.EXTERNAL_ACCOUNT_ID)
+    List<Long> findAccountIdsWithEntriesBetween(@Param("after") LocalDateTime after, @Param("upTo") LocalDateTime upTo);
+}
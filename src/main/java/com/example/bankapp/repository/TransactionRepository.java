@@ -1,10 +1,65 @@
 package com.example.bankapp.repository;
 
+import com.example.bankapp.model.StatementLine;
 import com.example.bankapp.model.Transaction;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
     List<Transaction> findByAccountId(Long accountId);
-}
\ No newline at end of file
+
+    /**
+     * Newest-first history of an account, served by the (account_id, timestamp, id) index.
+     * Only the page size of {@code limit} is used; there is no count query.
+     */
+    @Query("select t from Transaction t where t.account.id = :accountId order by t.timestamp desc, t.id desc")
+    List<Transaction> findLatestByAccountId(@Param("accountId") Long accountId, Pageable limit);
+
+    /**
+     * Keyset continuation of {@link #findLatestByAccountId}: rows strictly older than the
+     * (timestamp, id) of the last row already shown.
+     */
+    @Query("select t from Transaction t where t.account.id = :accountId"
+            + " and (t.timestamp < :timestamp or (t.timestamp = :timestamp and t.id < :id))"
+            + " order by t.timestamp desc, t.id desc")
+    List<Transaction> findByAccountIdBefore(@Param("accountId") Long accountId, @Param("timestamp") LocalDateTime timestamp,
+                                            @Param("id") Long id, Pageable limit);
+
+    /**
+     * As {@link #findLatestByAccountId}, selecting rows rather than entities for callers that
+     * only serialize them.
+     */
+    @Query("select new com.example.bankapp.model.StatementLine(t.id, t.timestamp, t.type, t.amount)"
+            + " from Transaction t where t.account.id = :accountId order by t.timestamp desc, t.id desc")
+    List<StatementLine> findLatestLinesByAccountId(@Param("accountId") Long accountId, Pageable limit);
+
+    /**
+     * As {@link #findByAccountIdBefore}, selecting rows rather than entities.
+     */
+    @Query("select new com.example.bankapp.model.StatementLine(t.id, t.timestamp, t.type, t.amount)"
+            + " from Transaction t where t.account.id = :accountId"
+            + " and (t.timestamp < :timestamp or (t.timestamp = :timestamp and t.id < :id))"
+            + " order by t.timestamp desc, t.id desc")
+    List<StatementLine> findLinesByAccountIdBefore(@Param("accountId") Long accountId,
+                                                   @Param("timestamp") LocalDateTime timestamp,
+                                                   @Param("id") Long id, Pageable limit);
+
+    /**
+     * Oldest-first statement rows read through a database cursor. With
+     * {@code useCursorFetch=true} on the MySQL URL only 500 rows
+     * are held client-side at a time. Must be consumed inside a transaction and closed.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select new com.example.bankapp.model.StatementLine(t.id, t.timestamp, t.type, t.amount)"
+            + " from Transaction t where t.account.id = :accountId order by t.timestamp, t.id")
+    Stream<StatementLine> streamStatementByAccountId(@Param("accountId") Long accountId);
+}
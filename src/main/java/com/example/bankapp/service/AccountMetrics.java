@@ -0,0 +1,98 @@
+package com.example.bankapp.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Meters for account operations:
+ * <ul>
+ *     <li>{@code bankapp.account.operation} timer with a percentile histogram, tagged by
+ *     {@code operation} and {@code outcome}</li>
+ *     <li>{@code bankapp.account.insufficient.funds} and {@code bankapp.account.not.found}
+ *     counters, tagged by {@code operation}</li>
+ *     <li>{@code bankapp.account.amount} summary of money moved, tagged by {@code operation}</li>
+ * </ul>
+ * Meters are created on first use and then looked up from local maps, so the hot path does
+ * not go through the registry.
+ */
+class AccountMetrics {
+
+    static final String SUCCESS = "success";
+    static final String INSUFFICIENT_FUNDS = "insufficient_funds";
+    static final String NOT_FOUND = "not_found";
+    static final String REJECTED = "rejected";
+    static final String ERROR = "error";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private final Map<String, DistributionSummary> amounts = new ConcurrentHashMap<>();
+
+    AccountMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    <T> T timed(String operation, Supplier<T> call) {
+        long start = System.nanoTime();
+        String outcome = SUCCESS;
+        try {
+            return call.get();
+        } catch (RuntimeException e) {
+            outcome = outcome(e);
+            if (!outcome.equals(REJECTED) && !outcome.equals(ERROR)) {
+                counter(operation, outcome).increment();
+            }
+            throw e;
+        } finally {
+            timer(operation, outcome).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    void amount(String operation, BigDecimal amount) {
+        amounts.computeIfAbsent(operation, key -> DistributionSummary.builder("bankapp.account.amount")
+                        .description("Money moved per operation")
+                        .tag("operation", key)
+                        .publishPercentileHistogram()
+                        .register(meterRegistry))
+                .record(amount.doubleValue());
+    }
+
+    private Timer timer(String operation, String outcome) {
+        return timers.computeIfAbsent(operation + '|' + outcome, key -> Timer.builder("bankapp.account.operation")
+                .description("Latency of account service operations")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+
+    private Counter counter(String operation, String outcome) {
+        String name = outcome.equals(INSUFFICIENT_FUNDS) ? "bankapp.account.insufficient.funds" : "bankapp.account.not.found";
+        return counters.computeIfAbsent(operation + '|' + outcome, key -> Counter.builder(name)
+                .tag("operation", operation)
+                .register(meterRegistry));
+    }
+
+    private static String outcome(RuntimeException e) {
+        if (e instanceof InsufficientFundsException) {
+            return INSUFFICIENT_FUNDS;
+        }
+        if (e instanceof AccountNotFoundException || e instanceof UsernameNotFoundException) {
+            return NOT_FOUND;
+        }
+        if (e instanceof UsernameAlreadyExistsException || e instanceof IdempotencyKeyReuseException
+                || e instanceof IllegalArgumentException) {
+            return REJECTED;
+        }
+        return ERROR;
+    }
+}
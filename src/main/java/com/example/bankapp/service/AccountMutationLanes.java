@@ -0,0 +1,256 @@
+package com.example.bankapp.service;
+
+import com.example.bankapp.monitoring.SqlProfile;
+import com.example.bankapp.monitoring.SqlProfiler;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.dao.DataAccessException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Supplier;
+
+/**
+ * Striped single-writer lanes for balance mutations submitted on this instance.
+ * <p>
+ * Every account id maps to one lane, and each lane is drained by a single thread, so
+ * deposits and withdrawals of the same account, and transfers from it, do not compete
+ * with each other for its row lock while different stripes proceed in parallel. That is
+ * the whole guarantee: a transfer is queued on the sender's lane only, so the recipient's
+ * row is written concurrently with the recipient's own lane and other instances, and bulk
+ * transfers do not use the lanes at all. Correctness never depends on the lanes: every
+ * path is safe under concurrent writers by itself, through row locks, conditional updates
+ * or append-only entries, and the lanes only reduce contention. Consecutive coalescable
+ * mutations waiting in a lane are applied in one shared transaction and one commit. If
+ * that commit fails, each mutation is replayed in its own transaction so only the faulty
+ * one fails.
+ * <p>
+ * A coalescable operation must throw its business failures (e.g. insufficient funds)
+ * before it writes anything. A data access failure in a shared transaction rolls the
+ * whole batch back and replays it, because the database may already have undone part of
+ * the transaction (InnoDB rolls all of it back on a deadlock) while later statements
+ * would still commit.
+ * <p>
+ * Each mutation runs under the submitter's {@link SqlProfile}. Statements flushed by a
+ * shared commit are not attributed to any single request.
+ */
+class AccountMutationLanes implements AutoCloseable {
+
+    private static final int MAX_BATCH = 64;
+    private static final int QUEUE_CAPACITY = 4096;
+    private static final ThreadLocal<Boolean> ON_LANE = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    private final List<BlockingQueue<Mutation<?>>> queues;
+    private final List<Thread> threads;
+    private final TransactionTemplate transactionTemplate;
+    private final DistributionSummary batchSize;
+    private volatile boolean closed;
+
+    AccountMutationLanes(int laneCount, TransactionTemplate transactionTemplate, MeterRegistry meterRegistry) {
+        this.transactionTemplate = transactionTemplate;
+        this.queues = new ArrayList<>(laneCount);
+        this.threads = new ArrayList<>(laneCount);
+        for (int i = 0; i < laneCount; i++) {
+            BlockingQueue<Mutation<?>> queue = new LinkedBlockingQueue<>(QUEUE_CAPACITY);
+            Thread thread = new Thread(() -> drain(queue), "account-lane-" + i);
+            thread.setDaemon(true);
+            queues.add(queue);
+            threads.add(thread);
+        }
+        this.batchSize = DistributionSummary.builder("bankapp.mutation.batch.size")
+                .description("Mutations applied per lane commit")
+                .register(meterRegistry);
+        Gauge.builder("bankapp.mutation.queued", this, AccountMutationLanes::queued)
+                .description("Mutations waiting in account lanes")
+                .register(meterRegistry);
+        threads.forEach(Thread::start);
+    }
+
+    /**
+     * Runs {@code operation} on the account's lane, possibly sharing a transaction with
+     * neighbouring mutations, and blocks until it has been committed.
+     */
+    <T> T execute(Long accountId, Supplier<T> operation) {
+        return submit(accountId, operation, false);
+    }
+
+    void run(Long accountId, Runnable operation) {
+        execute(accountId, () -> {
+            operation.run();
+            return null;
+        });
+    }
+
+    /**
+     * Runs {@code operation} on the account's lane outside any lane transaction, for
+     * mutations that manage their own transactions and retries.
+     */
+    <T> T executeAlone(Long accountId, Supplier<T> operation) {
+        return submit(accountId, operation, true);
+    }
+
+    int queued() {
+        int total = 0;
+        for (BlockingQueue<Mutation<?>> queue : queues) {
+            total += queue.size();
+        }
+        return total;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        threads.forEach(Thread::interrupt);
+    }
+
+    private <T> T submit(Long accountId, Supplier<T> operation, boolean exclusive) {
+        if (Boolean.TRUE.equals(ON_LANE.get())) {
+            // Nested call from a lane thread: waiting on another lane could deadlock
+            return operation.get();
+        }
+        if (closed) {
+            throw new IllegalStateException("Account mutation lanes are shut down");
+        }
+        Mutation<T> mutation = new Mutation<>(operation, exclusive);
+        try {
+            queues.get(Math.floorMod(accountId.hashCode(), queues.size())).put(mutation);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queueing account mutation", e);
+        }
+        return mutation.await();
+    }
+
+    private void drain(BlockingQueue<Mutation<?>> queue) {
+        ON_LANE.set(Boolean.TRUE);
+        List<Mutation<?>> batch = new ArrayList<>(MAX_BATCH);
+        while (!closed) {
+            try {
+                Mutation<?> head = queue.take();
+                if (head.exclusive) {
+                    batch.add(head);
+                    head.attempt();
+                    head.publish();
+                } else {
+                    batch.add(head);
+                    for (Mutation<?> next = queue.peek(); next != null && !next.exclusive && batch.size() < MAX_BATCH; next = queue.peek()) {
+                        batch.add(queue.poll());
+                    }
+                    commit(batch);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException | Error e) {
+                batch.forEach(mutation -> mutation.fail(e));
+            } finally {
+                batch.clear();
+            }
+        }
+        IllegalStateException shutdown = new IllegalStateException("Account mutation lanes are shut down");
+        for (Mutation<?> pending = queue.poll(); pending != null; pending = queue.poll()) {
+            pending.fail(shutdown);
+        }
+    }
+
+    private void commit(List<Mutation<?>> batch) {
+        batchSize.record(batch.size());
+        if (batch.size() == 1) {
+            commitAlone(batch.get(0));
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (Mutation<?> mutation : batch) {
+                    mutation.attempt();
+                    if (mutation.failure instanceof DataAccessException failure) {
+                        throw failure;
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            // The shared transaction rolled back; replay each mutation on its own so only the culprit fails
+            batch.forEach(this::commitAlone);
+            return;
+        }
+        batch.forEach(Mutation::publish);
+    }
+
+    private void commitAlone(Mutation<?> mutation) {
+        SqlProfile previous = SqlProfiler.bind(mutation.profile);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                mutation.attempt();
+                if (mutation.failure != null) {
+                    status.setRollbackOnly();
+                }
+            });
+        } catch (RuntimeException e) {
+            mutation.fail(e);
+            return;
+        } finally {
+            SqlProfiler.bind(previous);
+        }
+        mutation.publish();
+    }
+
+    private static final class Mutation<T> {
+
+        private final Supplier<T> operation;
+        private final boolean exclusive;
+        private final CompletableFuture<T> completion = new CompletableFuture<>();
+        private final SqlProfile profile = SqlProfiler.current();
+        private T result;
+        private RuntimeException failure;
+
+        Mutation(Supplier<T> operation, boolean exclusive) {
+            this.operation = operation;
+            this.exclusive = exclusive;
+        }
+
+        void attempt() {
+            result = null;
+            failure = null;
+            SqlProfile previous = SqlProfiler.bind(profile);
+            try {
+                result = operation.get();
+            } catch (RuntimeException e) {
+                failure = e;
+            } finally {
+                SqlProfiler.bind(previous);
+            }
+        }
+
+        void publish() {
+            if (failure != null) {
+                completion.completeExceptionally(failure);
+            } else {
+                completion.complete(result);
+            }
+        }
+
+        void fail(Throwable cause) {
+            completion.completeExceptionally(cause);
+        }
+
+        T await() {
+            try {
+                return completion.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                if (e.getCause() instanceof Error error) {
+                    throw error;
+                }
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.bankapp.service;
+
+public class AccountNotFoundException extends RuntimeException {
+    public AccountNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,196 @@
+package com.example.bankapp.service;
+
+import com.example.bankapp.model.Account;
+import com.example.bankapp.model.AccountSummary;
+import com.example.bankapp.model.Transaction;
+import com.example.bankapp.outbox.TransactionOutbox;
+import com.example.bankapp.repository.AccountRepository;
+import com.example.bankapp.repository.TransactionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Balances kept in {@code account.balance} and updated in place. Deposits and withdrawals
+ * are single conditional UPDATEs; transfers lock both rows in id order and update both.
+ */
+@Component
+@ConditionalOnProperty(name = "bankapp.balance.model", havingValue = "row", matchIfMissing = true)
+public class AccountRowBalanceModel implements BalanceModel {
+
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final TransactionOutbox outbox;
+    private final Timer transferLockWait;
+
+    public AccountRowBalanceModel(AccountRepository accountRepository, TransactionRepository transactionRepository,
+                                  TransactionOutbox outbox, MeterRegistry meterRegistry) {
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.outbox = outbox;
+        this.transferLockWait = Timer.builder("bankapp.transfer.lock.wait")
+                .description("Time spent acquiring the account row locks for a transfer")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Long deposit(Account account, BigDecimal amount) {
+        if (accountRepository.incrementBalance(account.getId(), amount) == 0) {
+            throw new AccountNotFoundException("Account not found");
+        }
+
+        Transaction transaction = new Transaction(
+                amount,
+                "Deposit",
+                LocalDateTime.now(),
+                account
+        );
+        transactionRepository.save(transaction);
+        outbox.record(transaction);
+        return transaction.getId();
+    }
+
+    @Override
+    public Long withdraw(Account account, BigDecimal amount) {
+        // The balance check happens in the UPDATE itself, so concurrent withdrawals cannot overdraw
+        if (accountRepository.decrementBalanceIfSufficient(account.getId(), amount) == 0) {
+            throw new InsufficientFundsException("Insufficient funds");
+        }
+
+        Transaction transaction = new Transaction(
+                amount,
+                "Withdrawal",
+                LocalDateTime.now(),
+                account
+        );
+        transactionRepository.save(transaction);
+        outbox.record(transaction);
+        return transaction.getId();
+    }
+
+    @Override
+    public TransferPosting transfer(Long fromId, String fromUsername, Long toId, String toUsername, BigDecimal amount) {
+        // Lock both rows in id order so that opposite transfers queue instead of deadlocking
+        long lockStart = System.nanoTime();
+        Account first = lockAccount(fromId < toId ? fromId : toId);
+        Account second = lockAccount(fromId < toId ? toId : fromId);
+        transferLockWait.record(System.nanoTime() - lockStart, TimeUnit.NANOSECONDS);
+
+        Account fromAccount = first.getId().equals(fromId) ? first : second;
+        Account toAccount = first.getId().equals(fromId) ? second : first;
+
+        if (fromAccount.getBalance().compareTo(amount) < 0) {
+            throw new InsufficientFundsException("Insufficient funds");
+        }
+
+        // Both rows are locked and managed, so the new balances are written on commit
+        fromAccount.setBalance(fromAccount.getBalance().subtract(amount));
+        toAccount.setBalance(toAccount.getBalance().add(amount));
+
+        // Create transaction records for both accounts
+        Transaction debitTransaction = new Transaction(
+                amount,
+                "Transfer Out to " + toAccount.getUsername(),
+                LocalDateTime.now(),
+                fromAccount
+        );
+        transactionRepository.save(debitTransaction);
+
+        Transaction creditTransaction = new Transaction(
+                amount,
+                "Transfer In from " + fromAccount.getUsername(),
+                LocalDateTime.now(),
+                toAccount
+        );
+        transactionRepository.save(creditTransaction);
+        outbox.recordAll(List.of(debitTransaction, creditTransaction));
+
+        return new TransferPosting(debitTransaction.getId(), fromAccount.getBalance());
+    }
+
+    private Account lockAccount(Long id) {
+        return accountRepository.findByIdForUpdate(id)
+                .orElseThrow(() -> new AccountNotFoundException("Account not found"));
+    }
+
+    @Override
+    public LockedBalances lockForTransfers(Set<Long> senderIds, Set<Long> recipientIds) {
+        Set<Long> sortedIds = new TreeSet<>(senderIds);
+        sortedIds.addAll(recipientIds);
+        Map<Long, Account> locked = new HashMap<>(sortedIds.size() * 2);
+        // Chunks are taken in ascending order, and each chunk locks its rows in id order
+        for (List<Long> chunk : Chunks.of(sortedIds)) {
+            for (Account account : accountRepository.findAllByIdForUpdate(chunk)) {
+                locked.put(account.getId(), account);
+            }
+        }
+        return new LockedRows(locked);
+    }
+
+    @Override
+    public Account withCurrentBalance(Account account) {
+        return account;
+    }
+
+    @Override
+    public List<AccountSummary> withCurrentBalances(List<AccountSummary> summaries) {
+        return summaries;
+    }
+
+    @Override
+    public void setBalance(Account account, BigDecimal balance) {
+        account.setBalance(balance);
+    }
+
+    private final class LockedRows implements LockedBalances {
+        private final Map<Long, Account> locked;
+        private final List<Transaction> records = new ArrayList<>();
+
+        LockedRows(Map<Long, Account> locked) {
+            this.locked = locked;
+        }
+
+        @Override
+        public boolean exists(Long accountId) {
+            return locked.containsKey(accountId);
+        }
+
+        @Override
+        public BigDecimal balance(Long accountId) {
+            return locked.get(accountId).getBalance();
+        }
+
+        @Override
+        public Transaction transfer(Long fromId, String fromUsername, Long toId, String toUsername, BigDecimal amount,
+                                    LocalDateTime at) {
+            Account fromAccount = locked.get(fromId);
+            Account toAccount = locked.get(toId);
+            // Managed and locked, so the new balances are flushed as batched updates at commit
+            fromAccount.setBalance(fromAccount.getBalance().subtract(amount));
+            toAccount.setBalance(toAccount.getBalance().add(amount));
+
+            Transaction debit = new Transaction(amount, "Transfer Out to " + toAccount.getUsername(), at, fromAccount);
+            records.add(debit);
+            records.add(new Transaction(amount, "Transfer In from " + fromAccount.getUsername(), at, toAccount));
+            return debit;
+        }
+
+        @Override
+        public void flush() {
+            transactionRepository.saveAll(records);
+            outbox.recordAll(records);
+        }
+    }
+}
@@ -2,98 +2,362 @@
 package com.example.bankapp.service;
 
 import com.example.bankapp.model.Account;
+import com.example.bankapp.model.AccountPrincipal;
+import com.example.bankapp.model.AccountSummary;
+import com.example.bankapp.model.IdempotencyRecord;
+import com.example.bankapp.model.StatementLine;
 import com.example.bankapp.model.Transaction;
 import com.example.bankapp.repository.AccountRepository;
 import com.example.bankapp.repository.TransactionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.math.BigDecimal;
-import java.time.LocalDateTime;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 @Service
-public class AccountService implements UserDetailsService {
+public class AccountService implements UserDetailsService, UserDetailsPasswordService {
+
+    private static final int MAX_TRANSFER_ATTEMPTS = 3;
+    private static final long TRANSFER_BACKOFF_MILLIS = 20;
+    private static final int MAX_HISTORY_PAGE_SIZE = 200;
+    private static final int MAX_ACCOUNT_PAGE_SIZE = 200;
+    private static final int STATEMENT_BUFFER_SIZE = 8192;
+    private static final int MUTATION_LANES = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
 
     private final PasswordEncoder passwordEncoder;
     private final AccountRepository accountRepository;
     private final TransactionRepository transactionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter transferRetries;
+    private final AccountMutationLanes mutationLanes;
+    private final PrincipalCache principalCache;
+    private final IdempotencyStore idempotencyStore;
+    private final AccountMetrics metrics;
+    private final BalanceModel balanceModel;
+    private final AccountVersions accountVersions;
 
-    public AccountService(PasswordEncoder passwordEncoder, AccountRepository accountRepository, TransactionRepository transactionRepository) {
+    public AccountService(PasswordEncoder passwordEncoder, AccountRepository accountRepository, TransactionRepository transactionRepository,
+                          PlatformTransactionManager transactionManager, MeterRegistry meterRegistry, PrincipalCache principalCache,
+                          IdempotencyStore idempotencyStore, BalanceModel balanceModel, AccountVersions accountVersions) {
         this.passwordEncoder = passwordEncoder;
         this.accountRepository = accountRepository;
         this.transactionRepository = transactionRepository;
+        this.principalCache = principalCache;
+        this.idempotencyStore = idempotencyStore;
+        this.balanceModel = balanceModel;
+        this.accountVersions = accountVersions;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transferRetries = Counter.builder("bankapp.transfer.retries")
+                .description("Transfers replayed after a deadlock or lock wait timeout")
+                .register(meterRegistry);
+        this.mutationLanes = new AccountMutationLanes(MUTATION_LANES, transactionTemplate, meterRegistry);
+        this.metrics = new AccountMetrics(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        mutationLanes.close();
     }
 
     public Account findAccountByUsername(String username) {
-        return accountRepository.findByUsername(username).orElseThrow(() -> new RuntimeException("Account not found"));
+        return balanceModel.withCurrentBalance(accountRepository.findByUsername(username)
+                .orElseThrow(() -> new AccountNotFoundException("Account not found")));
+    }
+
+    /**
+     * Id, username and current balance, without loading the entity.
+     */
+    @Transactional(readOnly = true)
+    public AccountSummary getAccountSummary(Long accountId) {
+        return metrics.timed("balance", () -> {
+            AccountSummary summary = accountRepository.findSummaryById(accountId)
+                    .orElseThrow(() -> new AccountNotFoundException("Account not found"));
+            return balanceModel.withCurrentBalances(List.of(summary)).get(0);
+        });
+    }
+
+    public Long findAccountId(String username) {
+        return accountRepository.findIdByUsername(username)
+                .orElseThrow(() -> new AccountNotFoundException("Account not found"));
     }
 
     public Account registerAccount(String username, String password) {
-        if (accountRepository.findByUsername(username).isPresent()) {
-            throw new UsernameAlreadyExistsException("Username already exists");
-        }
+        return metrics.timed("register", () -> {
+            if (accountRepository.findByUsername(username).isPresent()) {
+                throw new UsernameAlreadyExistsException("Username already exists");
+            }
 
-        Account account = new Account();
-        account.setUsername(username);
-        account.setPassword(passwordEncoder.encode(password)); // Encrypt password
-        account.setBalance(BigDecimal.ZERO); // Initial balance set to 0
-        return accountRepository.save(account);
+            Account account = new Account();
+            account.setUsername(username);
+            account.setPassword(passwordEncoder.encode(password)); // Encrypt password
+            account.setBalance(BigDecimal.ZERO); // Initial balance set to 0
+            return accountRepository.save(account);
+        });
     }
 
 
     public void deposit(Account account, BigDecimal amount) {
-        account.setBalance(account.getBalance().add(amount));
-        accountRepository.save(account);
+        deposit(account, amount, null);
+    }
 
-        Transaction transaction = new Transaction(
-                amount,
-                "Deposit",
-                LocalDateTime.now(),
-                account
-        );
-        transactionRepository.save(transaction);
+    /**
+     * Deposits {@code amount} at most once per {@code idempotencyKey}; a repeated key returns
+     * the first outcome without touching the balance. A {@code null} key disables the check.
+     *
+     * @throws IllegalArgumentException     if {@code amount} is not positive
+     * @throws IdempotencyKeyReuseException if the key was already used for a different request
+     */
+    public MutationReceipt deposit(Account account, BigDecimal amount, String idempotencyKey) {
+        requirePositive(amount);
+        return metrics.timed("deposit", () -> {
+            String fingerprint = fingerprint("deposit", amount, null);
+            MutationReceipt receipt = replayRecent(account.getId(), idempotencyKey, fingerprint);
+            if (receipt == null) {
+                receipt = onLane(account.getId(), idempotencyKey, fingerprint, () -> balanceModel.deposit(account, amount));
+            }
+            if (!receipt.isReplayed()) {
+                // Keep the caller's copy in step with the row without reloading it
+                account.setBalance(account.getBalance().add(amount));
+                metrics.amount("deposit", amount);
+            }
+            return receipt;
+        });
     }
 
     public void withdraw(Account account, BigDecimal amount) {
-        if (account.getBalance().compareTo(amount) < 0) {
-            throw new InsufficientFundsException("Insufficient funds");
+        withdraw(account, amount, null);
+    }
+
+    /**
+     * Withdraws {@code amount} at most once per {@code idempotencyKey}, see {@link #deposit(Account, BigDecimal, String)}.
+     */
+    public MutationReceipt withdraw(Account account, BigDecimal amount, String idempotencyKey) {
+        requirePositive(amount);
+        return metrics.timed("withdraw", () -> {
+            String fingerprint = fingerprint("withdraw", amount, null);
+            MutationReceipt receipt = replayRecent(account.getId(), idempotencyKey, fingerprint);
+            if (receipt == null) {
+                receipt = onLane(account.getId(), idempotencyKey, fingerprint, () -> balanceModel.withdraw(account, amount));
+            }
+            if (!receipt.isReplayed()) {
+                account.setBalance(account.getBalance().subtract(amount));
+                metrics.amount("withdraw", amount);
+            }
+            return receipt;
+        });
+    }
+
+    /**
+     * Fast path on the request thread: answers repeats this instance has already completed
+     * without queueing on a lane or reading the database.
+     */
+    private MutationReceipt replayRecent(Long accountId, String idempotencyKey, String fingerprint) {
+        if (idempotencyKey == null) {
+            return null;
         }
-        account.setBalance(account.getBalance().subtract(amount));
-        accountRepository.save(account);
+        IdempotencyStore.validate(idempotencyKey);
+        IdempotencyRecord previous = idempotencyStore.findRecent(accountId, idempotencyKey);
+        return previous == null ? null : replay(previous, fingerprint);
+    }
 
-        Transaction transaction = new Transaction(
-                amount,
-                "Withdrawal",
-                LocalDateTime.now(),
-                account
-        );
-        transactionRepository.save(transaction);
+    private MutationReceipt onLane(Long accountId, String idempotencyKey, String fingerprint, Supplier<Long> mutation) {
+        try {
+            return mutationLanes.execute(accountId, () -> idempotent(accountId, idempotencyKey, fingerprint, mutation));
+        } catch (DataIntegrityViolationException e) {
+            return replayWinner(accountId, idempotencyKey, fingerprint, e);
+        }
     }
 
+    /**
+     * Runs {@code mutation} unless the key is already recorded, and records it in the same
+     * transaction; the account's version moves once that commits. Running on the lane keeps two
+     * requests on this instance from both missing; across instances see {@link #replayWinner}.
+     */
+    private MutationReceipt idempotent(Long accountId, String idempotencyKey, String fingerprint, Supplier<Long> mutation) {
+        if (idempotencyKey == null) {
+            Long transactionId = mutation.get();
+            accountVersions.bump(accountId);
+            return new MutationReceipt(transactionId, false);
+        }
+        IdempotencyRecord previous = idempotencyStore.find(accountId, idempotencyKey);
+        if (previous != null) {
+            return replay(previous, fingerprint);
+        }
+        Long transactionId = mutation.get();
+        accountVersions.bump(accountId);
+        idempotencyStore.record(accountId, idempotencyKey, fingerprint, transactionId);
+        return new MutationReceipt(transactionId, false);
+    }
+
+    /**
+     * A request with the same key on another instance passed its lookup before ours committed.
+     * Its record won the primary key and our transaction, mutation included, rolled back, so
+     * the request is answered with the winner's outcome. Read in a read-write transaction so
+     * it goes to the primary rather than a replica that may not have the record yet.
+     */
+    private MutationReceipt replayWinner(Long accountId, String idempotencyKey, String fingerprint,
+                                         DataIntegrityViolationException e) {
+        IdempotencyRecord winner = idempotencyKey == null ? null
+                : transactionTemplate.execute(status -> idempotencyStore.find(accountId, idempotencyKey));
+        if (winner == null) {
+            throw e;
+        }
+        return replay(winner, fingerprint);
+    }
+
+    private static MutationReceipt replay(IdempotencyRecord previous, String fingerprint) {
+        if (!previous.getFingerprint().equals(fingerprint)) {
+            throw new IdempotencyKeyReuseException("Idempotency key was already used for a different request");
+        }
+        return new MutationReceipt(previous.getTransactionId(), true);
+    }
+
+    private static void requirePositive(BigDecimal amount) {
+        if (amount == null || amount.signum() <= 0) {
+            throw new IllegalArgumentException("Amount must be positive");
+        }
+    }
+
+    private static String fingerprint(String operation, BigDecimal amount, String counterparty) {
+        String value = operation + "|" + amount.stripTrailingZeros().toPlainString();
+        return counterparty == null ? value : value + "|" + counterparty;
+    }
+
+    @Transactional(readOnly = true)
     public List<Transaction> getTransactionHistory(Account account) {
-        return transactionRepository.findByAccountId(account.getId());
+        return metrics.timed("history", () -> transactionRepository.findByAccountId(account.getId()));
     }
 
+    /**
+     * Newest-first page of the account's history, continuing after {@code cursor} when given.
+     * Each page is a bounded index range scan, so its cost does not grow with history length.
+     *
+     * @throws IllegalArgumentException if {@code cursor} was not produced by a previous page
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<Transaction> getTransactionPage(Account account, String cursor, int pageSize) {
+        return metrics.timed("history", () -> {
+            int size = Math.min(Math.max(pageSize, 1), MAX_HISTORY_PAGE_SIZE);
+            // One extra row tells us whether another page exists without a count query
+            Pageable limit = PageRequest.of(0, size + 1);
+
+            List<Transaction> rows;
+            if (cursor == null || cursor.isEmpty()) {
+                rows = transactionRepository.findLatestByAccountId(account.getId(), limit);
+            } else {
+                TransactionCursor position = TransactionCursor.decode(cursor);
+                rows = transactionRepository.findByAccountIdBefore(account.getId(), position.getTimestamp(), position.getId(), limit);
+            }
+
+            if (rows.size() <= size) {
+                return new CursorPage<>(rows, null);
+            }
+            List<Transaction> page = rows.subList(0, size);
+            return new CursorPage<>(page, TransactionCursor.encode(page.get(size - 1)));
+        });
+    }
+
+    /**
+     * As {@link #getTransactionPage}, for callers that only read the rows: selects the
+     * columns shown rather than entities, so nothing is tracked by the persistence context.
+     * Cursors are interchangeable between the two.
+     *
+     * @throws IllegalArgumentException if {@code cursor} was not produced by a previous page
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<StatementLine> getHistoryLines(Long accountId, String cursor, int pageSize) {
+        return metrics.timed("history", () -> {
+            int size = Math.min(Math.max(pageSize, 1), MAX_HISTORY_PAGE_SIZE);
+            Pageable limit = PageRequest.of(0, size + 1);
+
+            List<StatementLine> rows;
+            if (cursor == null || cursor.isEmpty()) {
+                rows = transactionRepository.findLatestLinesByAccountId(accountId, limit);
+            } else {
+                TransactionCursor position = TransactionCursor.decode(cursor);
+                rows = transactionRepository.findLinesByAccountIdBefore(accountId, position.getTimestamp(), position.getId(), limit);
+            }
+
+            if (rows.size() <= size) {
+                return new CursorPage<>(rows, null);
+            }
+            List<StatementLine> page = rows.subList(0, size);
+            StatementLine last = page.get(size - 1);
+            return new CursorPage<>(page, TransactionCursor.encode(last.timestamp(), last.id()));
+        });
+    }
+
+    /**
+     * Streams the account's full statement to {@code out} straight from a database cursor.
+     * Rows are written one at a time, so memory use does not depend on history length.
+     * {@code out} is flushed but left open.
+     */
+    @Transactional(readOnly = true)
+    public void writeStatement(Long accountId, StatementFormat format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), STATEMENT_BUFFER_SIZE);
+        format.writeHeader(writer);
+        try (Stream<StatementLine> lines = transactionRepository.streamStatementByAccountId(accountId)) {
+            Iterator<StatementLine> iterator = lines.iterator();
+            while (iterator.hasNext()) {
+                format.writeLine(writer, iterator.next());
+            }
+        }
+        writer.flush();
+    }
+
+    /**
+     * Served from {@link PrincipalCache}; only a miss reads the id, username and password hash.
+     */
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        return metrics.timed("login", () -> {
+            AccountPrincipal principal = principalCache.get(username,
+                    name -> accountRepository.findPrincipalByUsername(name).orElse(null));
+            if (principal == null) {
+                throw new UsernameNotFoundException("Username or Password not found");
+            }
+            return principal;
+        });
+    }
 
-        Account account = findAccountByUsername(username);
-        if (account == null) {
-            throw new UsernameNotFoundException("Username or Password not found");
-        }
-        return new Account(
-                account.getUsername(),
-                account.getPassword(),
-                account.getBalance(),
-                account.getTransactions(),
-                authorities());
+    /**
+     * Stores a password hash that Spring Security re-encoded after a successful login because
+     * the stored one used an outdated algorithm or cost.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        accountRepository.updatePassword(user.getUsername(), newPassword);
+        principalCache.invalidate(user.getUsername());
+        Long id = user instanceof AccountPrincipal principal ? principal.getId() : null;
+        return new AccountPrincipal(id, user.getUsername(), newPassword, user.getAuthorities());
     }
 
     public List<GrantedAuthority> authorities() {
@@ -101,67 +365,173 @@ public class AccountService implements UserDetailsService {
     }
 
     public void transferAmount(Account fromAccount, String toUsername, BigDecimal amount) {
-        if (fromAccount.getBalance().compareTo(amount) < 0) {
-            throw new InsufficientFundsException("Insufficient funds");
+        transferAmount(fromAccount, toUsername, amount, null);
+    }
+
+    /**
+     * Transfers at most once per {@code idempotencyKey}, see {@link #deposit(Account, BigDecimal, String)}.
+     *
+     * @throws IllegalArgumentException if {@code amount} is not positive, or the recipient is
+     *                                  missing or the sender itself
+     */
+    public MutationReceipt transferAmount(Account fromAccount, String toUsername, BigDecimal amount, String idempotencyKey) {
+        requirePositive(amount);
+        if (toUsername == null || toUsername.isBlank()) {
+            throw new IllegalArgumentException("Recipient is required");
         }
+        if (toUsername.equals(fromAccount.getUsername())) {
+            throw new IllegalArgumentException("Cannot transfer to the same account");
+        }
+        return metrics.timed("transfer", () -> {
+            String fingerprint = fingerprint("transfer", amount, toUsername);
+            MutationReceipt recent = replayRecent(fromAccount.getId(), idempotencyKey, fingerprint);
+            if (recent != null) {
+                return recent;
+            }
+            // Transfers run alone on the sender's lane because they manage their own transaction and retries
+            TransferOutcome outcome;
+            try {
+                outcome = mutationLanes.executeAlone(fromAccount.getId(),
+                        () -> transferWithRetry(fromAccount.getId(), fromAccount.getUsername(), toUsername, amount,
+                                idempotencyKey, fingerprint));
+            } catch (DataIntegrityViolationException e) {
+                return replayWinner(fromAccount.getId(), idempotencyKey, fingerprint, e);
+            }
+            if (!outcome.receipt().isReplayed()) {
+                fromAccount.setBalance(outcome.remaining());
+                metrics.amount("transfer", amount);
+            }
+            return outcome.receipt();
+        });
+    }
 
-        Account toAccount = accountRepository.findByUsername(toUsername)
-                .orElseThrow(() -> new RuntimeException("Recipient account not found"));
+    private record TransferOutcome(MutationReceipt receipt, BigDecimal remaining) {
+    }
 
-        // Deduct from sender's account
-        fromAccount.setBalance(fromAccount.getBalance().subtract(amount));
-        accountRepository.save(fromAccount);
+    private TransferOutcome transferWithRetry(Long fromId, String fromUsername, String toUsername, BigDecimal amount,
+                                              String idempotencyKey, String fingerprint) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> {
+                    IdempotencyRecord previous = idempotencyKey == null ? null : idempotencyStore.find(fromId, idempotencyKey);
+                    if (previous != null) {
+                        return new TransferOutcome(replay(previous, fingerprint), null);
+                    }
+                    TransferOutcome outcome = transferWithinTransaction(fromId, fromUsername, toUsername, amount);
+                    if (idempotencyKey != null) {
+                        idempotencyStore.record(fromId, idempotencyKey, fingerprint, outcome.receipt().getTransactionId());
+                    }
+                    return outcome;
+                });
+            } catch (PessimisticLockingFailureException e) {
+                // Deadlock victim or lock wait timeout: the transaction was rolled back, so it is safe to replay
+                if (attempt >= MAX_TRANSFER_ATTEMPTS) {
+                    throw e;
+                }
+                transferRetries.increment();
+                backOff(attempt, e);
+            }
+        }
+    }
 
-        // Add to recipient's account
-        toAccount.setBalance(toAccount.getBalance().add(amount));
-        accountRepository.save(toAccount);
+    private TransferOutcome transferWithinTransaction(Long fromId, String fromUsername, String toUsername, BigDecimal amount) {
+        // Resolve only the id: loading the entity here would leave a stale, unlocked copy in the session
+        Long toId = accountRepository.findIdByUsername(toUsername)
+                .orElseThrow(() -> new AccountNotFoundException("Recipient account not found"));
 
-        // Create transaction records for both accounts
-        Transaction debitTransaction = new Transaction(
-                amount,
-                "Transfer Out to " + toAccount.getUsername(),
-                LocalDateTime.now(),
-                fromAccount
-        );
-        transactionRepository.save(debitTransaction);
+        BalanceModel.TransferPosting posting = balanceModel.transfer(fromId, fromUsername, toId, toUsername, amount);
+        accountVersions.bump(List.of(fromId, toId));
+        return new TransferOutcome(new MutationReceipt(posting.debitTransactionId(), false), posting.remaining());
+    }
 
-        Transaction creditTransaction = new Transaction(
-                amount,
-                "Transfer In from " + fromAccount.getUsername(),
-                LocalDateTime.now(),
-                toAccount
-        );
-        transactionRepository.save(creditTransaction);
+    private static void backOff(int attempt, RuntimeException cause) {
+        long delay = TRANSFER_BACKOFF_MILLIS * attempt + ThreadLocalRandom.current().nextLong(TRANSFER_BACKOFF_MILLIS);
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw cause;
+        }
     }
 
 
+    @Transactional(readOnly = true)
     public List<Account> getAllAccounts() {
-        return accountRepository.findAll();
+        List<Account> accounts = accountRepository.findAll();
+        accounts.forEach(balanceModel::withCurrentBalance);
+        return accounts;
+    }
+
+    /**
+     * Id-ordered page of account summaries after {@code afterId}, optionally limited to
+     * usernames starting with {@code usernamePrefix}. The next cursor is the last id on the page.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<AccountSummary> getAccountSummaries(String usernamePrefix, Long afterId, int pageSize) {
+        int size = Math.min(Math.max(pageSize, 1), MAX_ACCOUNT_PAGE_SIZE);
+        Pageable limit = PageRequest.of(0, size + 1);
+        long after = afterId == null ? 0L : afterId;
+
+        List<AccountSummary> rows;
+        if (usernamePrefix == null || usernamePrefix.isBlank()) {
+            rows = accountRepository.findSummariesAfter(after, limit);
+        } else {
+            rows = accountRepository.findSummariesByUsernameLikeAfter(escapeLike(usernamePrefix.trim()) + "%", after, limit);
+        }
+
+        if (rows.size() <= size) {
+            return new CursorPage<>(balanceModel.withCurrentBalances(rows), null);
+        }
+        List<AccountSummary> page = rows.subList(0, size);
+        return new CursorPage<>(balanceModel.withCurrentBalances(page), String.valueOf(page.get(size - 1).getId()));
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("!", "!!").replace("%", "!%").replace("_", "!_");
     }
 
     public Account saveAccount(Account account) {
-        return accountRepository.save(account);
+        Account saved = accountRepository.save(account);
+        principalCache.invalidate(saved.getUsername());
+        return saved;
     }
 
 
+    // Read and write on the primary; the repository's own read-only findById could hit a replica
+    @Transactional
     public Account updateAccount(Long id, Account updatedAccount) {
         return accountRepository.findById(id)
                 .map(account -> {
+                    principalCache.invalidate(account.getUsername());
                     account.setUsername(updatedAccount.getUsername());
                     account.setPassword(updatedAccount.getPassword());
-                    account.setBalance(updatedAccount.getBalance());
+                    balanceModel.setBalance(account, updatedAccount.getBalance());
                     // Add more fields as needed
-                    return accountRepository.save(account);
+                    Account saved = accountRepository.saveAndFlush(account);
+                    accountVersions.bump(id);
+                    principalCache.invalidate(saved.getUsername());
+                    return saved;
                 })
                 .orElse(null);
     }
 
+    /**
+     * Deletes the account; its version moves once the delete commits. The version row is
+     * kept as a tombstone, so pages cached for the account never revalidate against it again.
+     */
+    @Transactional
     public void deleteAccount(Long id) {
-        accountRepository.deleteById(id);
+        accountRepository.findById(id).ifPresent(account -> {
+            accountRepository.delete(account);
+            accountRepository.flush();
+            accountVersions.bump(id);
+        });
+        principalCache.invalidateAccount(id);
     }
 
+    @Transactional(readOnly = true)
     public Account getAccountById(Long id) {
-        return accountRepository.findById(id).orElse(null);
+        return accountRepository.findById(id).map(balanceModel::withCurrentBalance).orElse(null);
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,119 @@
+package com.example.bankapp.service;
+
+import com.example.bankapp.model.AccountVersion;
+import com.example.bankapp.repository.AccountVersionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Per-account versions, moved right after every change to an account commits, so pages
+ * showing the account can be revalidated with one primary-key read.
+ * <p>
+ * The bump runs in a transaction of its own, once for all accounts the committed
+ * transaction changed, so money movements never wait for or lock a version row: ledger
+ * credits stay lock-free. Between the commit and the bump a reload can still be answered
+ * with the previous copy. The bump runs on the committing thread before the change
+ * returns to its caller, so the client that made the change always sees it. If the bump
+ * fails the change stands, and pages showing it are refreshed by the account's next change.
+ */
+@Component
+public class AccountVersions {
+
+    private static final Logger log = LoggerFactory.getLogger(AccountVersions.class);
+    private static final String BUMP = "insert into account_version (account_id, version, modified_at) values (?, 1, ?)"
+            + " on duplicate key update version = version + 1, modified_at = ?";
+
+    private final AccountVersionRepository repository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate bumpTransaction;
+
+    public AccountVersions(AccountVersionRepository repository, JdbcTemplate jdbcTemplate,
+                           PlatformTransactionManager transactionManager) {
+        this.repository = repository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.bumpTransaction = new TransactionTemplate(transactionManager);
+        this.bumpTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Moves the account to its next version once the current transaction commits.
+     */
+    public void bump(Long accountId) {
+        bump(List.of(accountId));
+    }
+
+    /**
+     * Moves every account to its next version once the current transaction commits, or
+     * right away outside a transaction, in one JDBC batch per chunk.
+     */
+    public void bump(Collection<Long> accountIds) {
+        if (accountIds.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            write(accountIds);
+            return;
+        }
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof PendingBumps pending) {
+                pending.accountIds.addAll(accountIds);
+                return;
+            }
+        }
+        PendingBumps pending = new PendingBumps();
+        pending.accountIds.addAll(accountIds);
+        TransactionSynchronizationManager.registerSynchronization(pending);
+    }
+
+    /**
+     * @return the account's current version; version 0 if it has not changed since versions were introduced
+     */
+    @Transactional(readOnly = true)
+    public AccountVersion current(Long accountId) {
+        return repository.findById(accountId).orElseGet(() -> new AccountVersion(accountId, 0, null));
+    }
+
+    private void write(Collection<Long> accountIds) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (List<Long> chunk : Chunks.of(new TreeSet<>(accountIds))) {
+            List<Object[]> batch = new ArrayList<>(chunk.size());
+            for (Long id : chunk) {
+                batch.add(new Object[]{id, now, now});
+            }
+            jdbcTemplate.batchUpdate(BUMP, batch);
+        }
+    }
+
+    /** The accounts changed by one transaction, bumped after it commits. */
+    private final class PendingBumps implements TransactionSynchronization {
+
+        private final Set<Long> accountIds = new TreeSet<>();
+
+        @Override
+        public void afterCommit() {
+            try {
+                // The committed transaction's resources are still bound, so the bump needs a new one
+                bumpTransaction.executeWithoutResult(status -> write(accountIds));
+            } catch (RuntimeException e) {
+                // The change is committed; failing its caller now would invite a retry that repeats it
+                log.warn("Could not move the versions of accounts {}", accountIds, e);
+            }
+        }
+    }
+}
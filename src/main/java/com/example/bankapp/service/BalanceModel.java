@@ -0,0 +1,90 @@
+package com.example.bankapp.service;
+
+import com.example.bankapp.model.Account;
+import com.example.bankapp.model.AccountSummary;
+import com.example.bankapp.model.Transaction;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * How balances are stored and moved, selected with {@code bankapp.balance.model}:
+ * {@code row} updates {@code account.balance} in place, {@code ledger} appends double-entry
+ * {@link com.example.bankapp.model.LedgerEntry ledger entries} and derives balances from them.
+ * <p>
+ * Mutating methods run in the caller's transaction and also write the customer-facing
+ * {@link Transaction} history rows.
+ */
+public interface BalanceModel {
+
+    /**
+     * @return id of the history row written
+     * @throws AccountNotFoundException if the account does not exist
+     */
+    Long deposit(Account account, BigDecimal amount);
+
+    /**
+     * @return id of the history row written
+     * @throws InsufficientFundsException if the balance is lower than {@code amount}
+     */
+    Long withdraw(Account account, BigDecimal amount);
+
+    /**
+     * Locks what the model needs, checks the sender's funds and moves {@code amount}.
+     *
+     * @throws AccountNotFoundException   if either account no longer exists
+     * @throws InsufficientFundsException if the sender's balance is lower than {@code amount}
+     */
+    TransferPosting transfer(Long fromId, String fromUsername, Long toId, String toUsername, BigDecimal amount);
+
+    /**
+     * Locks the accounts for a run of transfers, always in ascending id order.
+     */
+    LockedBalances lockForTransfers(Set<Long> senderIds, Set<Long> recipientIds);
+
+    /**
+     * Puts the current balance on {@code account}; a no-op when the row already holds it.
+     */
+    Account withCurrentBalance(Account account);
+
+    /**
+     * @return the summaries with their current balances
+     */
+    List<AccountSummary> withCurrentBalances(List<AccountSummary> summaries);
+
+    /**
+     * Sets a balance directly, for administrative edits of a loaded, managed account.
+     */
+    void setBalance(Account account, BigDecimal balance);
+
+    /**
+     * @param debitTransactionId id of the sender's history row
+     * @param remaining          the sender's balance after the transfer
+     */
+    record TransferPosting(Long debitTransactionId, BigDecimal remaining) {
+    }
+
+    /**
+     * Balances locked for a run of transfers. Transfers are applied to the in-memory balances
+     * immediately and written by {@link #flush()}.
+     */
+    interface LockedBalances {
+
+        boolean exists(Long accountId);
+
+        /**
+         * @return the current balance of a locked sender
+         */
+        BigDecimal balance(Long accountId);
+
+        /**
+         * @return the sender's history row, whose id is assigned by {@link #flush()} at the latest
+         */
+        Transaction transfer(Long fromId, String fromUsername, Long toId, String toUsername, BigDecimal amount,
+                             LocalDateTime at);
+
+        void flush();
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.bankapp.service;
+
+import java.util.List;
+
+/**
+ * Per-line outcome of a bulk transfer, in submission order, plus the total wall time.
+ */
+public class BulkTransferResult {
+
+    public enum Status { APPLIED, REJECTED }
+
+    /**
+     * @param transactionId the sender's ledger entry, {@code null} unless applied
+     */
+    public record Item(int line, Status status, String message, Long transactionId) {
+    }
+
+    private final List<Item> items;
+    private final long elapsedMillis;
+
+    public BulkTransferResult(List<Item> items, long elapsedMillis) {
+        this.items = items;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public List<Item> getItems() {
+        return items;
+    }
+
+    public long getApplied() {
+        return items.stream().filter(item -> item.status() == Status.APPLIED).count();
+    }
+
+    public long getRejected() {
+        return items.size() - getApplied();
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+}
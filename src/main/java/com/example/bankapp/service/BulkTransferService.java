@@ -0,0 +1,183 @@
+package com.example.bankapp.service;
+
+import com.example.bankapp.model.AccountSummary;
+import com.example.bankapp.model.Transaction;
+import com.example.bankapp.repository.AccountRepository;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies many transfers (payroll-style one-to-many, or many-to-many) in one transaction.
+ * <p>
+ * All usernames are resolved with IN queries, the {@link BalanceModel} locks every involved
+ * account up front in ascending id order (the same order single transfers use), and lines
+ * are then applied in submission order against the locked balances. Balance changes and
+ * history records go out as JDBC batches at commit. A line that fails validation or lacks funds is rejected on its
+ * own; the other lines still apply.
+ */
+@Service
+public class BulkTransferService {
+
+    public static final int MAX_LINES = 10_000;
+
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long BACKOFF_MILLIS = 20;
+
+    private final AccountRepository accountRepository;
+    private final BalanceModel balanceModel;
+    private final AccountVersions accountVersions;
+    private final TransactionTemplate transactionTemplate;
+
+    public BulkTransferService(AccountRepository accountRepository, BalanceModel balanceModel,
+                               AccountVersions accountVersions, PlatformTransactionManager transactionManager) {
+        this.accountRepository = accountRepository;
+        this.balanceModel = balanceModel;
+        this.accountVersions = accountVersions;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * @throws IllegalArgumentException if there are no lines or more than {@value #MAX_LINES}
+     */
+    public BulkTransferResult transfer(List<TransferInstruction> lines) {
+        if (lines.isEmpty() || lines.size() > MAX_LINES) {
+            throw new IllegalArgumentException("A bulk transfer must have between 1 and " + MAX_LINES + " lines");
+        }
+        long start = System.nanoTime();
+        List<BulkTransferResult.Item> items = transferWithRetry(lines);
+        return new BulkTransferResult(items, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private List<BulkTransferResult.Item> transferWithRetry(List<TransferInstruction> lines) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> transferWithinTransaction(lines));
+            } catch (PessimisticLockingFailureException e) {
+                // Rolled back as a whole, so the batch can be replayed from scratch
+                if (attempt >= MAX_ATTEMPTS) {
+                    throw e;
+                }
+                backOff(attempt, e);
+            }
+        }
+    }
+
+    private List<BulkTransferResult.Item> transferWithinTransaction(List<TransferInstruction> lines) {
+        int count = lines.size();
+        String[] rejections = new String[count];
+
+        Set<String> usernames = new HashSet<>();
+        for (int i = 0; i < count; i++) {
+            rejections[i] = validate(lines.get(i));
+            if (rejections[i] == null) {
+                usernames.add(lines.get(i).fromUsername());
+                usernames.add(lines.get(i).toUsername());
+            }
+        }
+
+        Map<String, Long> ids = resolveIds(usernames);
+        Set<Long> senderIds = new HashSet<>();
+        Set<Long> recipientIds = new HashSet<>();
+        for (int i = 0; i < count; i++) {
+            if (rejections[i] != null) {
+                continue;
+            }
+            Long fromId = ids.get(lines.get(i).fromUsername());
+            Long toId = ids.get(lines.get(i).toUsername());
+            if (fromId == null) {
+                rejections[i] = "Sender account not found";
+            } else if (toId == null) {
+                rejections[i] = "Recipient account not found";
+            } else {
+                senderIds.add(fromId);
+                recipientIds.add(toId);
+            }
+        }
+
+        BalanceModel.LockedBalances locked = balanceModel.lockForTransfers(senderIds, recipientIds);
+        Transaction[] debits = new Transaction[count];
+        Set<Long> changed = new HashSet<>();
+        LocalDateTime now = LocalDateTime.now();
+
+        for (int i = 0; i < count; i++) {
+            if (rejections[i] != null) {
+                continue;
+            }
+            TransferInstruction line = lines.get(i);
+            Long fromId = ids.get(line.fromUsername());
+            Long toId = ids.get(line.toUsername());
+            if (!locked.exists(fromId) || !locked.exists(toId)) {
+                // Deleted between resolving and locking
+                rejections[i] = "Account not found";
+                continue;
+            }
+            if (locked.balance(fromId).compareTo(line.amount()) < 0) {
+                rejections[i] = "Insufficient funds";
+                continue;
+            }
+            debits[i] = locked.transfer(fromId, line.fromUsername(), toId, line.toUsername(), line.amount(), now);
+            changed.add(fromId);
+            changed.add(toId);
+        }
+        locked.flush();
+        accountVersions.bump(changed);
+
+        List<BulkTransferResult.Item> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(rejections[i] != null
+                    ? new BulkTransferResult.Item(i + 1, BulkTransferResult.Status.REJECTED, rejections[i], null)
+                    : new BulkTransferResult.Item(i + 1, BulkTransferResult.Status.APPLIED, null, debits[i].getId()));
+        }
+        return items;
+    }
+
+    private static String validate(TransferInstruction line) {
+        if (line == null || isBlank(line.fromUsername()) || isBlank(line.toUsername())) {
+            return "Sender and recipient are required";
+        }
+        if (line.amount() == null || line.amount().signum() <= 0) {
+            return "Amount must be positive";
+        }
+        if (line.fromUsername().equals(line.toUsername())) {
+            return "Cannot transfer to the same account";
+        }
+        return null;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private Map<String, Long> resolveIds(Set<String> usernames) {
+        Map<String, Long> ids = new HashMap<>(usernames.size() * 2);
+        for (List<String> chunk : Chunks.of(usernames)) {
+            for (AccountSummary account : accountRepository.findSummariesByUsernameIn(chunk)) {
+                ids.put(account.getUsername(), account.getId());
+            }
+        }
+        return ids;
+    }
+
+    private static void backOff(int attempt, RuntimeException cause) {
+        long delay = BACKOFF_MILLIS * attempt + ThreadLocalRandom.current().nextLong(BACKOFF_MILLIS);
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw cause;
+        }
+    }
+}
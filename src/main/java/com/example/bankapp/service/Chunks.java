@@ -0,0 +1,25 @@
+package com.example.bankapp.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Splits IN-list parameters so no single query carries more than {@value #SIZE} values.
+ */
+final class Chunks {
+
+    static final int SIZE = 1_000;
+
+    private Chunks() {
+    }
+
+    static <T> List<List<T>> of(Collection<T> values) {
+        List<T> list = values instanceof List<T> l ? l : new ArrayList<>(values);
+        List<List<T>> chunks = new ArrayList<>();
+        for (int from = 0; from < list.size(); from += SIZE) {
+            chunks.add(list.subList(from, Math.min(from + SIZE, list.size())));
+        }
+        return chunks;
+    }
+}
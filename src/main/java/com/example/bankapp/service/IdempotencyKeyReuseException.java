@@ -0,0 +1,7 @@
+package com.example.bankapp.service;
+
+public class IdempotencyKeyReuseException extends RuntimeException {
+    public IdempotencyKeyReuseException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.bankapp.service;
+
+import com.example.bankapp.model.IdempotencyRecord;
+import com.example.bankapp.repository.IdempotencyRecordRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Completed idempotent requests: a bounded in-memory LRU of recent outcomes in front of
+ * the {@code idempotency_record} table, which stays the source of truth across instances.
+ * <p>
+ * Records are written in the same transaction as the mutation they describe, so a key is
+ * either recorded together with its balance change or not at all. Failed requests are not
+ * recorded; since they changed nothing, a replay simply runs again.
+ * <p>
+ * Lookups are not locking reads, so a retry arriving on another instance can miss a key whose
+ * first request has not committed yet and run the mutation as well. The table's primary key
+ * settles it: the later commit fails with a {@code DataIntegrityViolationException} and rolls
+ * back, and the caller answers with the winning record instead.
+ */
+@Component
+public class IdempotencyStore {
+
+    static final int MAX_KEY_LENGTH = 64;
+
+    private final IdempotencyRecordRepository repository;
+    private final Cache<String, IdempotencyRecord> recent;
+    private final Duration ttl;
+
+    public IdempotencyStore(IdempotencyRecordRepository repository,
+                            @Value("${bankapp.idempotency.cache-size:100000}") long cacheSize,
+                            @Value("${bankapp.idempotency.ttl:24h}") Duration ttl,
+                            MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.ttl = ttl;
+        this.recent = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, recent, "idempotency");
+    }
+
+    /**
+     * Memory-only lookup, cheap enough to run on the request thread before any queueing.
+     *
+     * @return the recorded outcome, or {@code null} if this instance has not seen the key recently
+     */
+    public IdempotencyRecord findRecent(Long accountId, String key) {
+        return recent.getIfPresent(scopedKey(accountId, key));
+    }
+
+    /**
+     * Authoritative lookup; call inside the transaction that would record the key.
+     */
+    public IdempotencyRecord find(Long accountId, String key) {
+        String id = scopedKey(accountId, key);
+        IdempotencyRecord cached = recent.getIfPresent(id);
+        if (cached != null) {
+            return cached;
+        }
+        return repository.findById(id).orElse(null);
+    }
+
+    /**
+     * Records the outcome in the current transaction. It becomes visible in the in-memory
+     * cache only after that transaction commits. The insert is flushed with the rest of the
+     * transaction, so a key recorded concurrently elsewhere fails the commit, not this call.
+     */
+    public void record(Long accountId, String key, String fingerprint, Long transactionId) {
+        IdempotencyRecord record = new IdempotencyRecord(scopedKey(accountId, key), fingerprint, transactionId, LocalDateTime.now());
+        repository.save(record);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    recent.put(record.getId(), record);
+                }
+            });
+        } else {
+            recent.put(record.getId(), record);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${bankapp.idempotency.cleanup-interval:PT10M}")
+    public void purgeExpired() {
+        repository.deleteCreatedBefore(LocalDateTime.now().minus(ttl));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the key is blank or longer than {@value #MAX_KEY_LENGTH} characters
+     */
+    static void validate(String key) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency key must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+    }
+
+    private static String scopedKey(Long accountId, String key) {
+        return accountId + ":" + key;
+    }
+}
@@ -0,0 +1,234 @@
+package com.example.bankapp.service;
+
+import com.example.bankapp.model.Account;
+import com.example.bankapp.model.AccountSummary;
+import com.example.bankapp.model.LedgerEntry;
+import com.example.bankapp.model.Transaction;
+import com.example.bankapp.outbox.TransactionOutbox;
+import com.example.bankapp.repository.AccountRepository;
+import com.example.bankapp.repository.LedgerEntryRepository;
+import com.example.bankapp.repository.TransactionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Balances derived from the append-only ledger: a {@link com.example.bankapp.model.BalanceSnapshot}
+ * (or the opening balance left in {@code account.balance}) plus the entries created since,
+ * so a read costs one index range scan over the recent tail.
+ * <p>
+ * Writers never update {@code account}. Credits (deposits, incoming transfers) only append;
+ * debits lock the sender's row with {@code SELECT ... FOR UPDATE} to check funds, then append.
+ * The row is read for the lock only, so it is never written and the lock is all a debit holds.
+ */
+@Component
+@ConditionalOnProperty(name = "bankapp.balance.model", havingValue = "ledger")
+public class LedgerBalanceModel implements BalanceModel {
+
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final TransactionOutbox outbox;
+    private final Timer transferLockWait;
+
+    public LedgerBalanceModel(AccountRepository accountRepository, TransactionRepository transactionRepository,
+                              LedgerEntryRepository ledgerEntryRepository, TransactionOutbox outbox,
+                              MeterRegistry meterRegistry) {
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.ledgerEntryRepository = ledgerEntryRepository;
+        this.outbox = outbox;
+        this.transferLockWait = Timer.builder("bankapp.transfer.lock.wait")
+                .description("Time spent acquiring the account row locks for a transfer")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Long deposit(Account account, BigDecimal amount) {
+        if (!accountRepository.existsById(account.getId())) {
+            throw new AccountNotFoundException("Account not found");
+        }
+        Transaction transaction = new Transaction(amount, "Deposit", LocalDateTime.now(), account);
+        transactionRepository.save(transaction);
+        outbox.record(transaction);
+        post(LedgerEntry.EXTERNAL_ACCOUNT_ID, account.getId(), amount, transaction.getId(), transaction.getTimestamp());
+        return transaction.getId();
+    }
+
+    @Override
+    public Long withdraw(Account account, BigDecimal amount) {
+        if (lockedBalance(account.getId()).compareTo(amount) < 0) {
+            throw new InsufficientFundsException("Insufficient funds");
+        }
+        Transaction transaction = new Transaction(amount, "Withdrawal", LocalDateTime.now(), account);
+        transactionRepository.save(transaction);
+        outbox.record(transaction);
+        post(account.getId(), LedgerEntry.EXTERNAL_ACCOUNT_ID, amount, transaction.getId(), transaction.getTimestamp());
+        return transaction.getId();
+    }
+
+    @Override
+    public TransferPosting transfer(Long fromId, String fromUsername, Long toId, String toUsername, BigDecimal amount) {
+        // Only the sender is locked: crediting cannot overdraw, so the recipient is append-only
+        long lockStart = System.nanoTime();
+        BigDecimal balance = lockedBalance(fromId);
+        transferLockWait.record(System.nanoTime() - lockStart, TimeUnit.NANOSECONDS);
+
+        if (balance.compareTo(amount) < 0) {
+            throw new InsufficientFundsException("Insufficient funds");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Transaction debit = new Transaction(amount, "Transfer Out to " + toUsername, now,
+                accountRepository.getReferenceById(fromId));
+        Transaction credit = new Transaction(amount, "Transfer In from " + fromUsername, now,
+                accountRepository.getReferenceById(toId));
+        transactionRepository.save(debit);
+        transactionRepository.save(credit);
+        outbox.recordAll(List.of(debit, credit));
+        ledgerEntryRepository.saveAll(List.of(
+                new LedgerEntry(fromId, amount.negate(), debit.getId(), now),
+                new LedgerEntry(toId, amount, credit.getId(), now)));
+        return new TransferPosting(debit.getId(), balance.subtract(amount));
+    }
+
+    @Override
+    public LockedBalances lockForTransfers(Set<Long> senderIds, Set<Long> recipientIds) {
+        Set<Long> locked = new HashSet<>();
+        for (List<Long> chunk : Chunks.of(new TreeSet<>(senderIds))) {
+            locked.addAll(accountRepository.lockIdsForUpdate(chunk));
+        }
+        Map<Long, BigDecimal> balances = balancesOf(locked);
+        return new LockedLedger(balances, recipientIds);
+    }
+
+    @Override
+    public Account withCurrentBalance(Account account) {
+        if (account != null) {
+            account.setDerivedBalance(balanceOf(account.getId()));
+        }
+        return account;
+    }
+
+    @Override
+    public List<AccountSummary> withCurrentBalances(List<AccountSummary> summaries) {
+        List<Long> ids = summaries.stream().map(AccountSummary::getId).toList();
+        Map<Long, BigDecimal> balances = balancesOf(ids);
+        return summaries.stream()
+                .<AccountSummary>map(summary -> new CurrentSummary(summary.getId(), summary.getUsername(),
+                        balances.getOrDefault(summary.getId(), summary.getBalance())))
+                .toList();
+    }
+
+    /**
+     * Books the difference to the current balance as an adjustment against the external account.
+     */
+    @Override
+    public void setBalance(Account account, BigDecimal balance) {
+        BigDecimal delta = balance.subtract(lockedBalance(account.getId()));
+        if (delta.signum() != 0) {
+            post(LedgerEntry.EXTERNAL_ACCOUNT_ID, account.getId(), delta, null, LocalDateTime.now());
+        }
+        account.setDerivedBalance(balance);
+    }
+
+    BigDecimal balanceOf(Long accountId) {
+        return ledgerEntryRepository.findBalance(accountId, LedgerEntryRepository.BEGINNING)
+                .orElseThrow(() -> new AccountNotFoundException("Account not found"));
+    }
+
+    private Map<Long, BigDecimal> balancesOf(Collection<Long> accountIds) {
+        Map<Long, BigDecimal> balances = new HashMap<>(accountIds.size() * 2);
+        for (List<Long> chunk : Chunks.of(accountIds)) {
+            for (Object[] row : ledgerEntryRepository.findBalances(chunk, LedgerEntryRepository.BEGINNING)) {
+                balances.put((Long) row[0], (BigDecimal) row[1]);
+            }
+        }
+        return balances;
+    }
+
+    private BigDecimal lockedBalance(Long accountId) {
+        if (accountRepository.lockIdsForUpdate(List.of(accountId)).isEmpty()) {
+            throw new AccountNotFoundException("Account not found");
+        }
+        return balanceOf(accountId);
+    }
+
+    /** Appends the balanced pair moving {@code amount} from {@code debitId} to {@code creditId}. */
+    private void post(Long debitId, Long creditId, BigDecimal amount, Long transactionId, LocalDateTime at) {
+        ledgerEntryRepository.saveAll(List.of(
+                new LedgerEntry(debitId, amount.negate(), transactionId, at),
+                new LedgerEntry(creditId, amount, transactionId, at)));
+    }
+
+    private final class LockedLedger implements LockedBalances {
+        private final Map<Long, BigDecimal> balances;
+        private final Set<Long> recipientIds;
+        private final List<Transaction> records = new ArrayList<>();
+        private final List<long[]> pairs = new ArrayList<>();
+
+        LockedLedger(Map<Long, BigDecimal> balances, Set<Long> recipientIds) {
+            this.balances = balances;
+            this.recipientIds = recipientIds;
+        }
+
+        @Override
+        public boolean exists(Long accountId) {
+            // Recipients were resolved in this transaction and are not locked; a concurrent
+            // delete surfaces as a foreign key violation at flush
+            return balances.containsKey(accountId) || recipientIds.contains(accountId);
+        }
+
+        @Override
+        public BigDecimal balance(Long accountId) {
+            return balances.get(accountId);
+        }
+
+        @Override
+        public Transaction transfer(Long fromId, String fromUsername, Long toId, String toUsername, BigDecimal amount,
+                                    LocalDateTime at) {
+            balances.computeIfPresent(fromId, (id, balance) -> balance.subtract(amount));
+            // A recipient that also sends later in the run can spend what it received
+            balances.computeIfPresent(toId, (id, balance) -> balance.add(amount));
+
+            Transaction debit = new Transaction(amount, "Transfer Out to " + toUsername, at,
+                    accountRepository.getReferenceById(fromId));
+            records.add(debit);
+            records.add(new Transaction(amount, "Transfer In from " + fromUsername, at,
+                    accountRepository.getReferenceById(toId)));
+            pairs.add(new long[]{fromId, toId});
+            return debit;
+        }
+
+        @Override
+        public void flush() {
+            transactionRepository.saveAll(records);
+            outbox.recordAll(records);
+            List<LedgerEntry> entries = new ArrayList<>(records.size());
+            for (int i = 0; i < pairs.size(); i++) {
+                Transaction debit = records.get(2 * i);
+                Transaction credit = records.get(2 * i + 1);
+                entries.add(new LedgerEntry(pairs.get(i)[0], debit.getAmount().negate(), debit.getId(), debit.getTimestamp()));
+                entries.add(new LedgerEntry(pairs.get(i)[1], credit.getAmount(), credit.getId(), credit.getTimestamp()));
+            }
+            ledgerEntryRepository.saveAll(entries);
+        }
+    }
+
+    private record CurrentSummary(Long getId, String getUsername, BigDecimal getBalance) implements AccountSummary {
+    }
+}
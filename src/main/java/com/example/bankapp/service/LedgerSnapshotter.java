@@ -0,0 +1,82 @@
+package com.example.bankapp.service;
+
+import com.example.bankapp.model.BalanceSnapshot;
+import com.example.bankapp.repository.BalanceSnapshotRepository;
+import com.example.bankapp.repository.LedgerEntryRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Folds ledger entries into per-account {@link BalanceSnapshot}s so balance reads only sum
+ * a short tail.
+ * <p>
+ * Only entries created more than {@code fold-delay} ago are folded. Entry ids are allocated
+ * in blocks and creation times are set before commit, so neither orders entries by commit;
+ * the delay has to exceed the longest a transaction can stay open, after which no entry can
+ * still appear behind a snapshot. Several instances may fold concurrently: each snapshot
+ * they write is consistent on its own, and a snapshot never moves backwards.
+ */
+@Component
+@ConditionalOnProperty(name = "bankapp.balance.model", havingValue = "ledger")
+public class LedgerSnapshotter {
+
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final BalanceSnapshotRepository snapshotRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration foldDelay;
+    private LocalDateTime foldedUpTo;
+
+    public LedgerSnapshotter(LedgerEntryRepository ledgerEntryRepository, BalanceSnapshotRepository snapshotRepository,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${bankapp.ledger.fold-delay:10m}") Duration foldDelay) {
+        this.ledgerEntryRepository = ledgerEntryRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.foldDelay = foldDelay;
+    }
+
+    @Scheduled(fixedDelayString = "${bankapp.ledger.snapshot-interval:PT1M}")
+    public void snapshot() {
+        fold(LocalDateTime.now().minus(foldDelay));
+    }
+
+    /**
+     * Snapshots every account with entries created since the last run, up to {@code cutoff}.
+     *
+     * @return the number of snapshots written
+     */
+    synchronized int fold(LocalDateTime cutoff) {
+        if (foldedUpTo == null) {
+            // Accounts with older entries were folded by earlier runs; any missed ones only have a longer tail
+            foldedUpTo = snapshotRepository.findLatestAsOf().orElse(LedgerEntryRepository.BEGINNING);
+        }
+        if (!cutoff.isAfter(foldedUpTo)) {
+            return 0;
+        }
+        List<Long> accountIds = ledgerEntryRepository.findAccountIdsWithEntriesBetween(foldedUpTo, cutoff);
+        int written = 0;
+        for (List<Long> chunk : Chunks.of(accountIds)) {
+            Integer count = transactionTemplate.execute(status -> {
+                List<BalanceSnapshot> snapshots = new ArrayList<>(chunk.size());
+                for (Object[] row : ledgerEntryRepository.findBalancesAt(chunk, cutoff, LedgerEntryRepository.BEGINNING)) {
+                    snapshots.add(new BalanceSnapshot((Long) row[0], (BigDecimal) row[1], cutoff));
+                }
+                snapshotRepository.saveAll(snapshots);
+                return snapshots.size();
+            });
+            written += count == null ? 0 : count;
+        }
+        foldedUpTo = cutoff;
+        return written;
+    }
+}
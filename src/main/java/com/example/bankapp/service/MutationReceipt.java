@@ -0,0 +1,24 @@
+package com.example.bankapp.service;
+
+/**
+ * Result of a deposit, withdrawal or transfer. {@code replayed} is true when an idempotency
+ * key matched an earlier request and nothing was changed this time.
+ */
+public class MutationReceipt {
+
+    private final Long transactionId;
+    private final boolean replayed;
+
+    public MutationReceipt(Long transactionId, boolean replayed) {
+        this.transactionId = transactionId;
+        this.replayed = replayed;
+    }
+
+    public Long getTransactionId() {
+        return transactionId;
+    }
+
+    public boolean isReplayed() {
+        return replayed;
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.bankapp.service;
+
+import com.example.bankapp.model.AccountPrincipal;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Bounded username to principal cache in front of the account table.
+ * <p>
+ * Entries expire after a fixed TTL, which bounds how long another instance's account
+ * changes can go unseen; changes made through {@link AccountService} evict immediately,
+ * or when their transaction commits. Unknown usernames are not cached.
+ */
+@Component
+public class PrincipalCache {
+
+    private final AsyncCache<String, AccountPrincipal> cache;
+
+    public PrincipalCache(@Value("${bankapp.principal-cache.max-size:10000}") long maxSize,
+                          @Value("${bankapp.principal-cache.ttl:5m}") Duration ttl,
+                          MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "principals");
+    }
+
+    /**
+     * Loads on the calling thread, outside the cache: a synchronous {@code get} would run the
+     * query inside the map's synchronized bin and pin a virtual thread's carrier for the round
+     * trip. Concurrent misses wait on the first one's future, and an eviction while it loads
+     * drops the future, so the row it read is not cached.
+     *
+     * @return the cached or freshly loaded principal, or {@code null} if {@code loader} found none
+     */
+    public AccountPrincipal get(String username, Function<String, AccountPrincipal> loader) {
+        CompletableFuture<AccountPrincipal> cached = cache.getIfPresent(username);
+        if (cached == null) {
+            CompletableFuture<AccountPrincipal> loading = new CompletableFuture<>();
+            cached = cache.asMap().putIfAbsent(username, loading);
+            if (cached == null) {
+                try {
+                    AccountPrincipal loaded = loader.apply(username);
+                    // A null value removes the entry again
+                    loading.complete(loaded);
+                    return loaded;
+                } catch (RuntimeException e) {
+                    loading.completeExceptionally(e);
+                    throw e;
+                }
+            }
+        }
+        try {
+            return cached.join();
+        } catch (CompletionException e) {
+            // The first caller's load failed; fail the same way it did
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    /**
+     * Evicts the username. Inside a transaction the eviction waits for the commit, so a
+     * login running meanwhile cannot cache the row as it was before the change.
+     */
+    public void invalidate(String username) {
+        if (username != null) {
+            afterCommit(() -> cache.asMap().remove(username));
+        }
+    }
+
+    /**
+     * Evicts by account id, for callers that do not know the username. Scans the cache, after
+     * the commit when called inside a transaction.
+     */
+    public void invalidateAccount(Long id) {
+        afterCommit(() -> cache.asMap().values().removeIf(future -> {
+            // A load still in flight may be reading this account; dropping it only skips caching it
+            AccountPrincipal principal = future.isDone() && !future.isCompletedExceptionally() ? future.join() : null;
+            return principal == null || id.equals(principal.getId());
+        }));
+    }
+
+    private static void afterCommit(Runnable eviction) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eviction.run();
+                }
+            });
+        } else {
+            eviction.run();
+        }
+    }
+}
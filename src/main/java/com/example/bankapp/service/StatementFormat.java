@@ -0,0 +1,119 @@
+package com.example.bankapp.service;
+
+import com.example.bankapp.model.StatementLine;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Locale;
+
+/**
+ * Line-oriented statement encodings. Each line is written as soon as it is read so an
+ * export never holds more than one row.
+ */
+public enum StatementFormat {
+
+    CSV("text/csv", "csv") {
+        @Override
+        void writeHeader(Writer writer) throws IOException {
+            writer.write("id,timestamp,type,amount\n");
+        }
+
+        @Override
+        void writeLine(Writer writer, StatementLine line) throws IOException {
+            writer.write(String.valueOf(line.id()));
+            writer.write(',');
+            writer.write(String.valueOf(line.timestamp()));
+            writer.write(',');
+            writeCsvField(writer, line.type());
+            writer.write(',');
+            writer.write(line.amount().toPlainString());
+            writer.write('\n');
+        }
+    },
+
+    NDJSON("application/x-ndjson", "ndjson") {
+        @Override
+        void writeHeader(Writer writer) {
+            // Newline-delimited JSON has no header
+        }
+
+        @Override
+        void writeLine(Writer writer, StatementLine line) throws IOException {
+            writer.write("{\"id\":");
+            writer.write(String.valueOf(line.id()));
+            writer.write(",\"timestamp\":\"");
+            writer.write(String.valueOf(line.timestamp()));
+            writer.write("\",\"type\":");
+            writeJsonString(writer, line.type());
+            writer.write(",\"amount\":");
+            writer.write(line.amount().toPlainString());
+            writer.write("}\n");
+        }
+    };
+
+    private final String contentType;
+    private final String extension;
+
+    StatementFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    abstract void writeHeader(Writer writer) throws IOException;
+
+    abstract void writeLine(Writer writer, StatementLine line) throws IOException;
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * @throws IllegalArgumentException for unknown formats
+     */
+    public static StatementFormat fromParameter(String value) {
+        return valueOf(value.trim().toUpperCase(Locale.ROOT));
+    }
+
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private static void writeJsonString(Writer writer, String value) throws IOException {
+        if (value == null) {
+            writer.write("null");
+            return;
+        }
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> writer.write("\\\"");
+                case '\\' -> writer.write("\\\\");
+                case '\n' -> writer.write("\\n");
+                case '\r' -> writer.write("\\r");
+                case '\t' -> writer.write("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        writer.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        writer.write(c);
+                    }
+                }
+            }
+        }
+        writer.write('"');
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.bankapp.service;
+
+import com.example.bankapp.model.Transaction;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in an account's history: the (timestamp, id) of the last row on a page,
+ * encoded as URL-safe Base64 so it can travel in a query string.
+ */
+final class TransactionCursor {
+
+    private static final char SEPARATOR = '|';
+
+    private final LocalDateTime timestamp;
+    private final Long id;
+
+    private TransactionCursor(LocalDateTime timestamp, Long id) {
+        this.timestamp = timestamp;
+        this.id = id;
+    }
+
+    static String encode(Transaction last) {
+        return encode(last.getTimestamp(), last.getId());
+    }
+
+    static String encode(LocalDateTime timestamp, Long id) {
+        String raw = timestamp.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static TransactionCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            return new TransactionCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.valueOf(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid history cursor", e);
+        }
+    }
+
+    LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    Long getId() {
+        return id;
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.bankapp.service;
+
+import java.math.BigDecimal;
+
+/**
+ * One line of a bulk transfer.
+ */
+public record TransferInstruction(String fromUsername, String toUsername, BigDecimal amount) {
+}
@@ -0,0 +1,169 @@
+package com.example.bankapp.session;
+
+import com.example.bankapp.model.AccountPrincipal;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextImpl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary encoding of session attributes.
+ * <p>
+ * A signed-in user's security context is written as account id, username and authority
+ * names, typically well under 100 bytes, and rebuilt as an authenticated token around an
+ * {@link AccountPrincipal} without its password hash. Authentication details (remote
+ * address, original session id) are not kept. Longs and strings are written as such; any
+ * other value falls back to Java serialization, restricted on the way back in to JDK and
+ * Spring Security types.
+ */
+final class SessionAttributeCodec {
+
+    private static final int VERSION = 1;
+    private static final byte SECURITY_CONTEXT = 1;
+    private static final byte LONG = 2;
+    private static final byte STRING = 3;
+    private static final byte SERIALIZED = 4;
+    private static final ObjectInputFilter SERIALIZED_TYPES = ObjectInputFilter.Config.createFilter(
+            "java.base/*;org.springframework.security.**;com.example.bankapp.**;maxdepth=20;maxbytes=65535;!*");
+
+    private SessionAttributeCodec() {
+    }
+
+    static byte[] encode(Map<String, Object> attributes) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeShort(attributes.size());
+            for (Map.Entry<String, Object> attribute : attributes.entrySet()) {
+                out.writeUTF(attribute.getKey());
+                writeValue(out, attribute.getKey(), attribute.getValue());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @throws IllegalArgumentException if the bytes are not a valid encoding
+     */
+    static Map<String, Object> decode(byte[] encoded) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(encoded))) {
+            int version = in.readUnsignedByte();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unknown session encoding version " + version);
+            }
+            int count = in.readUnsignedShort();
+            Map<String, Object> attributes = new LinkedHashMap<>(count * 2);
+            for (int i = 0; i < count; i++) {
+                attributes.put(in.readUTF(), readValue(in));
+            }
+            return attributes;
+        } catch (IOException | ClassNotFoundException e) {
+            throw new IllegalArgumentException("Unreadable session attributes", e);
+        }
+    }
+
+    /**
+     * The signed-in username, if {@code attributes} hold an authenticated security context.
+     */
+    static String principalName(Map<String, Object> attributes) {
+        for (Object value : attributes.values()) {
+            if (value instanceof SecurityContext context && context.getAuthentication() != null
+                    && context.getAuthentication().isAuthenticated()) {
+                return context.getAuthentication().getName();
+            }
+        }
+        return null;
+    }
+
+    private static void writeValue(DataOutputStream out, String name, Object value) throws IOException {
+        if (value instanceof SecurityContext context && compactPrincipal(context) instanceof AccountPrincipal principal) {
+            out.writeByte(SECURITY_CONTEXT);
+            out.writeLong(principal.getId() == null ? -1 : principal.getId());
+            out.writeUTF(principal.getUsername());
+            out.writeByte(principal.getAuthorities().size());
+            for (GrantedAuthority authority : principal.getAuthorities()) {
+                out.writeUTF(authority.getAuthority());
+            }
+        } else if (value instanceof Long number) {
+            out.writeByte(LONG);
+            out.writeLong(number);
+        } else if (value instanceof String text) {
+            out.writeByte(STRING);
+            out.writeUTF(text);
+        } else if (value instanceof Serializable) {
+            ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+            try (ObjectOutputStream objects = new ObjectOutputStream(serialized)) {
+                objects.writeObject(value);
+            }
+            out.writeByte(SERIALIZED);
+            out.writeInt(serialized.size());
+            serialized.writeTo(out);
+        } else {
+            throw new IllegalArgumentException("Session attribute " + name + " is not serializable");
+        }
+    }
+
+    private static Object readValue(DataInputStream in) throws IOException, ClassNotFoundException {
+        byte type = in.readByte();
+        switch (type) {
+            case SECURITY_CONTEXT -> {
+                long id = in.readLong();
+                String username = in.readUTF();
+                int count = in.readUnsignedByte();
+                List<GrantedAuthority> authorities = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    authorities.add(new SimpleGrantedAuthority(in.readUTF()));
+                }
+                AccountPrincipal principal = new AccountPrincipal(id < 0 ? null : id, username, null, authorities);
+                return new SecurityContextImpl(UsernamePasswordAuthenticationToken.authenticated(principal, null, authorities));
+            }
+            case LONG -> {
+                return in.readLong();
+            }
+            case STRING -> {
+                return in.readUTF();
+            }
+            case SERIALIZED -> {
+                byte[] serialized = in.readNBytes(in.readInt());
+                try (ObjectInputStream objects = new ObjectInputStream(new ByteArrayInputStream(serialized))) {
+                    objects.setObjectInputFilter(SERIALIZED_TYPES);
+                    return objects.readObject();
+                }
+            }
+            default -> throw new IOException("Unknown attribute type " + type);
+        }
+    }
+
+    /**
+     * @return the principal if the context holds an authenticated username/password login
+     *         that the compact form can represent, otherwise {@code null}
+     */
+    private static Object compactPrincipal(SecurityContext context) {
+        Authentication authentication = context.getAuthentication();
+        if (authentication instanceof UsernamePasswordAuthenticationToken && authentication.isAuthenticated()
+                && authentication.getPrincipal() instanceof AccountPrincipal principal
+                && principal.getAuthorities().size() <= 255) {
+            return principal;
+        }
+        return null;
+    }
+}
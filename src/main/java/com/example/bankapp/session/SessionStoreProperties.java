@@ -0,0 +1,25 @@
+package com.example.bankapp.session;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Shared HTTP sessions, see {@link SharedSessionRepository}.
+ *
+ * @param timeout       inactivity after which a session expires
+ * @param nearCacheTtl  how long an instance serves a session from memory without reading the
+ *                      table; also how long a logout or a read-your-writes marker set on another
+ *                      instance can go unnoticed here, so with replicas it plus their maximum lag
+ *                      must fit in {@code bankapp.replica.read-your-writes-window}
+ * @param nearCacheSize sessions kept in memory per instance
+ * @param flushInterval how often batched last-access updates are written
+ */
+@ConfigurationProperties("bankapp.session")
+public record SessionStoreProperties(@DefaultValue("true") boolean enabled,
+                                     @DefaultValue("30m") Duration timeout,
+                                     @DefaultValue("1s") Duration nearCacheTtl,
+                                     @DefaultValue("100000") long nearCacheSize,
+                                     @DefaultValue("10s") Duration flushInterval) {
+}
@@ -0,0 +1,121 @@
+package com.example.bankapp.session;
+
+import org.springframework.session.MapSession;
+import org.springframework.session.Session;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+
+/**
+ * A session held by {@link SharedSessionRepository}. Tracks what changed since it was
+ * loaded, so a request that only touched the session costs a batched last-access update
+ * rather than a rewrite of its attributes.
+ */
+public final class SharedSession implements Session {
+
+    private final MapSession delegate;
+    private boolean isNew;
+    private boolean attributesChanged;
+    private String originalId;
+
+    SharedSession(MapSession delegate, boolean isNew) {
+        this.delegate = delegate;
+        this.isNew = isNew;
+        this.attributesChanged = isNew;
+        this.originalId = delegate.getId();
+    }
+
+    @Override
+    public String getId() {
+        return delegate.getId();
+    }
+
+    @Override
+    public String changeSessionId() {
+        return delegate.changeSessionId();
+    }
+
+    @Override
+    public <T> T getAttribute(String attributeName) {
+        return delegate.getAttribute(attributeName);
+    }
+
+    @Override
+    public Set<String> getAttributeNames() {
+        return delegate.getAttributeNames();
+    }
+
+    @Override
+    public void setAttribute(String attributeName, Object attributeValue) {
+        delegate.setAttribute(attributeName, attributeValue);
+        attributesChanged = true;
+    }
+
+    @Override
+    public void removeAttribute(String attributeName) {
+        if (delegate.getAttribute(attributeName) != null) {
+            delegate.removeAttribute(attributeName);
+            attributesChanged = true;
+        }
+    }
+
+    @Override
+    public Instant getCreationTime() {
+        return delegate.getCreationTime();
+    }
+
+    @Override
+    public void setLastAccessedTime(Instant lastAccessedTime) {
+        delegate.setLastAccessedTime(lastAccessedTime);
+    }
+
+    @Override
+    public Instant getLastAccessedTime() {
+        return delegate.getLastAccessedTime();
+    }
+
+    @Override
+    public void setMaxInactiveInterval(Duration interval) {
+        if (!interval.equals(delegate.getMaxInactiveInterval())) {
+            delegate.setMaxInactiveInterval(interval);
+            attributesChanged = true;
+        }
+    }
+
+    @Override
+    public Duration getMaxInactiveInterval() {
+        return delegate.getMaxInactiveInterval();
+    }
+
+    @Override
+    public boolean isExpired() {
+        return delegate.isExpired();
+    }
+
+    MapSession getDelegate() {
+        return delegate;
+    }
+
+    boolean isNew() {
+        return isNew;
+    }
+
+    boolean isAttributesChanged() {
+        return attributesChanged;
+    }
+
+    String getOriginalId() {
+        return originalId;
+    }
+
+    boolean isIdChanged() {
+        return !originalId.equals(delegate.getId());
+    }
+
+    void markSaved() {
+        isNew = false;
+        attributesChanged = false;
+        originalId = delegate.getId();
+    }
+}
@@ -0,0 +1,262 @@
+package com.example.bankapp.session;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.session.MapSession;
+import org.springframework.session.SessionRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HTTP sessions kept in the {@code http_session} table, so any instance can serve any
+ * user and a blue/green switch does not sign everyone out.
+ * <p>
+ * Most requests only read the session and move its last-access time. Reads are served
+ * from a per-instance near-cache for up to {@code nearCacheTtl}, and last-access updates
+ * are collected in memory and written in one batch every {@code flushInterval}; only
+ * sign-in, sign-out and attribute changes write through. The cost is staleness bounded by
+ * those two settings: a session signed out on another instance can still be honoured here
+ * until its cached copy expires, attributes set there (such as the read-your-writes marker)
+ * are not seen here until then either, and a session's stored expiry can trail its last request
+ * by up to one flush interval.
+ * <p>
+ * Attributes are stored as one blob in the compact encoding of
+ * {@link SessionAttributeCodec}; two requests changing the same session's attributes at
+ * once keep the later write.
+ */
+public class SharedSessionRepository implements SessionRepository<SharedSession>, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(SharedSessionRepository.class);
+    private static final String COLUMNS =
+            "session_id, principal_name, creation_time, last_access_time, max_inactive_seconds, expiry_time, attributes";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration timeout;
+    private final Duration flushInterval;
+    private final Cache<String, StoredSession> nearCache;
+    private final Map<String, Instant> pendingTouches = new ConcurrentHashMap<>();
+    private final Timer cacheReads;
+    private final Timer databaseReads;
+    private final Timer inserts;
+    private final Timer updates;
+    private final Timer touches;
+    private final Timer flushes;
+    private final DistributionSummary size;
+
+    public SharedSessionRepository(JdbcTemplate jdbcTemplate, SessionStoreProperties properties, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.timeout = properties.timeout();
+        this.flushInterval = properties.flushInterval();
+        this.nearCache = Caffeine.newBuilder()
+                .maximumSize(properties.nearCacheSize())
+                .expireAfterWrite(properties.nearCacheTtl())
+                .build();
+        this.cacheReads = readTimer("cache", meterRegistry);
+        this.databaseReads = readTimer("database", meterRegistry);
+        this.inserts = writeTimer("insert", meterRegistry);
+        this.updates = writeTimer("update", meterRegistry);
+        this.touches = writeTimer("touch", meterRegistry);
+        this.flushes = writeTimer("flush", meterRegistry);
+        this.size = DistributionSummary.builder("bankapp.session.size")
+                .description("Encoded size of session attributes as written")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    private static Timer readTimer(String source, MeterRegistry meterRegistry) {
+        return Timer.builder("bankapp.session.read")
+                .description("Time to load a session per request, by where it came from")
+                .tag("source", source)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private static Timer writeTimer(String kind, MeterRegistry meterRegistry) {
+        return Timer.builder("bankapp.session.write")
+                .description("Time to save a session; touch is the in-memory last-access update, flush its batched write")
+                .tag("kind", kind)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @Override
+    public SharedSession createSession() {
+        MapSession session = new MapSession();
+        session.setMaxInactiveInterval(timeout);
+        return new SharedSession(session, true);
+    }
+
+    @Override
+    public void save(SharedSession session) {
+        long start = System.nanoTime();
+        if (session.isNew()) {
+            StoredSession stored = StoredSession.of(session.getDelegate());
+            jdbcTemplate.update("insert into http_session (" + COLUMNS + ") values (?, ?, ?, ?, ?, ?, ?)",
+                    stored.id(), stored.principalName(), stored.creationTime(), stored.lastAccessTime(),
+                    stored.maxInactiveSeconds(), stored.expiryTime(), stored.attributes());
+            cacheWritten(session, stored);
+            inserts.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        } else if (session.isAttributesChanged() || session.isIdChanged()) {
+            StoredSession stored = StoredSession.of(session.getDelegate());
+            jdbcTemplate.update("update http_session set session_id = ?, principal_name = ?, last_access_time = ?,"
+                            + " max_inactive_seconds = ?, expiry_time = ?, attributes = ? where session_id = ?",
+                    stored.id(), stored.principalName(), stored.lastAccessTime(), stored.maxInactiveSeconds(),
+                    stored.expiryTime(), stored.attributes(), session.getOriginalId());
+            if (session.isIdChanged()) {
+                nearCache.invalidate(session.getOriginalId());
+                pendingTouches.remove(session.getOriginalId());
+            }
+            cacheWritten(session, stored);
+            updates.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        } else {
+            pendingTouches.merge(session.getId(), session.getLastAccessedTime(),
+                    (pending, latest) -> latest.isAfter(pending) ? latest : pending);
+            touches.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void cacheWritten(SharedSession session, StoredSession stored) {
+        size.record(stored.attributes().length);
+        pendingTouches.remove(stored.id());
+        nearCache.put(stored.id(), stored);
+        session.markSaved();
+    }
+
+    @Override
+    public SharedSession findById(String id) {
+        long start = System.nanoTime();
+        StoredSession stored = nearCache.getIfPresent(id);
+        Timer source = cacheReads;
+        if (stored == null) {
+            source = databaseReads;
+            List<StoredSession> rows = jdbcTemplate.query("select " + COLUMNS + " from http_session where session_id = ?",
+                    (rs, rowNum) -> new StoredSession(rs.getString(1), rs.getString(2), rs.getLong(3), rs.getLong(4),
+                            rs.getInt(5), rs.getLong(6), rs.getBytes(7)), id);
+            stored = rows.isEmpty() ? null : rows.get(0);
+            if (stored != null) {
+                nearCache.put(id, stored);
+            }
+        }
+        SharedSession session = stored == null ? null : load(stored);
+        source.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (session != null && session.isExpired()) {
+            deleteById(id);
+            return null;
+        }
+        return session;
+    }
+
+    private SharedSession load(StoredSession stored) {
+        MapSession session = new MapSession(stored.id());
+        session.setCreationTime(Instant.ofEpochMilli(stored.creationTime()));
+        Instant lastAccess = Instant.ofEpochMilli(stored.lastAccessTime());
+        Instant touched = pendingTouches.get(stored.id());
+        session.setLastAccessedTime(touched != null && touched.isAfter(lastAccess) ? touched : lastAccess);
+        session.setMaxInactiveInterval(Duration.ofSeconds(stored.maxInactiveSeconds()));
+        try {
+            SessionAttributeCodec.decode(stored.attributes()).forEach(session::setAttribute);
+        } catch (IllegalArgumentException e) {
+            // Written by an incompatible version; start the user over rather than failing every request
+            log.warn("Discarding unreadable session attributes", e);
+        }
+        return new SharedSession(session, false);
+    }
+
+    @Override
+    public void deleteById(String id) {
+        nearCache.invalidate(id);
+        pendingTouches.remove(id);
+        jdbcTemplate.update("delete from http_session where session_id = ?", id);
+    }
+
+    /**
+     * Writes the last-access times collected since the previous flush in one batch.
+     */
+    @Scheduled(fixedDelayString = "${bankapp.session.flush-interval:PT10S}")
+    public void flush() {
+        if (pendingTouches.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        List<Object[]> batch = new ArrayList<>(pendingTouches.size());
+        for (Map.Entry<String, Instant> touch : pendingTouches.entrySet()) {
+            if (pendingTouches.remove(touch.getKey(), touch.getValue())) {
+                StoredSession cached = nearCache.getIfPresent(touch.getKey());
+                long lastAccess = touch.getValue().toEpochMilli();
+                long maxInactiveSeconds = cached != null ? cached.maxInactiveSeconds() : timeout.toSeconds();
+                batch.add(new Object[]{lastAccess, lastAccess + maxInactiveSeconds * 1000, touch.getKey(), lastAccess});
+                // The cached copy still has the old last access; the next read takes the row instead
+                nearCache.invalidate(touch.getKey());
+            }
+        }
+        try {
+            // Never move a session's last access backwards past a newer write from another instance
+            jdbcTemplate.batchUpdate("update http_session set last_access_time = ?, expiry_time = ?"
+                    + " where session_id = ? and last_access_time < ?", batch);
+        } catch (RuntimeException e) {
+            log.warn("Failed to write {} session last-access times; those sessions may expire early", batch.size(), e);
+        }
+        flushes.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Deletes expired sessions. A session's stored expiry can trail its last request by up
+     * to one flush interval, so only rows past that grace are removed.
+     */
+    @Scheduled(fixedDelayString = "${bankapp.session.cleanup-interval:PT1M}")
+    public void purgeExpired() {
+        long cutoff = System.currentTimeMillis() - flushInterval.toMillis();
+        int purged = jdbcTemplate.update("delete from http_session where expiry_time < ?", cutoff);
+        if (purged > 0) {
+            log.debug("Purged {} expired sessions", purged);
+        }
+    }
+
+    /**
+     * Writes pending last-access times on shutdown, so a blue/green switch does not shorten
+     * the sessions this instance served last.
+     */
+    @Override
+    public void destroy() {
+        flush();
+    }
+
+    int pendingTouchCount() {
+        return pendingTouches.size();
+    }
+
+    /**
+     * A session row as read or written; cached instead of the decoded session so each
+     * request gets its own mutable copy.
+     */
+    private record StoredSession(String id, String principalName, long creationTime, long lastAccessTime,
+                                 int maxInactiveSeconds, long expiryTime, byte[] attributes) {
+
+        static StoredSession of(MapSession session) {
+            Map<String, Object> attributes = new LinkedHashMap<>();
+            for (String name : session.getAttributeNames()) {
+                attributes.put(name, session.getAttribute(name));
+            }
+            long lastAccess = session.getLastAccessedTime().toEpochMilli();
+            int maxInactiveSeconds = (int) session.getMaxInactiveInterval().toSeconds();
+            return new StoredSession(session.getId(), SessionAttributeCodec.principalName(attributes),
+                    session.getCreationTime().toEpochMilli(), lastAccess, maxInactiveSeconds,
+                    lastAccess + maxInactiveSeconds * 1000L, SessionAttributeCodec.encode(attributes));
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.bankapp.warmup;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+
+/**
+ * {@code OUT_OF_SERVICE} until start-up warm-up has finished. Part of the readiness group,
+ * so a freshly started pod receives no traffic from the service while it is still cold.
+ */
+public class WarmupHealthIndicator implements HealthIndicator {
+
+    private final WarmupRunner runner;
+
+    public WarmupHealthIndicator(WarmupRunner runner) {
+        this.runner = runner;
+    }
+
+    @Override
+    public Health health() {
+        if (!runner.isComplete()) {
+            return Health.outOfService().build();
+        }
+        return Health.up()
+                .withDetail("durationMillis", runner.getDuration().toMillis())
+                .withDetail("paths", runner.getRounds())
+                .build();
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.bankapp.warmup;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Start-up warm-up, see {@link WarmupRunner}.
+ *
+ * @param roundSize   calls per path in one round
+ * @param maxRounds   rounds per path before giving up on convergence
+ * @param tolerance   a path has converged once a round's mean latency is within this
+ *                    fraction of the previous round's
+ * @param maxDuration total time budget; paths still running are cut short
+ */
+@ConfigurationProperties("bankapp.warmup")
+public record WarmupProperties(@DefaultValue("true") boolean enabled,
+                               @DefaultValue("50") int roundSize,
+                               @DefaultValue("20") int maxRounds,
+                               @DefaultValue("0.1") double tolerance,
+                               @DefaultValue("60s") Duration maxDuration) {
+}
@@ -0,0 +1,290 @@
+package com.example.bankapp.warmup;
+
+import com.example.bankapp.api.HistoryResponse;
+import com.example.bankapp.api.TransactionResponse;
+import com.example.bankapp.model.Account;
+import com.example.bankapp.model.Transaction;
+import com.example.bankapp.service.AccountNotFoundException;
+import com.example.bankapp.service.AccountService;
+import com.example.bankapp.service.StatementFormat;
+import com.example.bankapp.web.AccountFragment;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ApplicationContext;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.Context;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Warms a freshly started instance before it reports ready: fills the connection pool,
+ * then repeatedly runs the read paths a cold pod is slowest on (account lookups, history
+ * and statement queries, login, Thymeleaf rendering, JSON serialization) until each one's
+ * latency stops improving, so the JIT, Hibernate's query plan cache and the template cache
+ * are hot before the service sends traffic.
+ * <p>
+ * Only synthetic, read-only work is done: lookups of an account that does not exist and
+ * templates rendered with made-up data. Nothing is written. A warm-up that fails or runs
+ * out of time is logged and the instance becomes ready anyway.
+ */
+public class WarmupRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(WarmupRunner.class);
+    private static final String SYNTHETIC_USERNAME = "warmup-synthetic-user";
+    private static final long SYNTHETIC_ACCOUNT_ID = -1L;
+    private static final int HISTORY_PAGE_SIZE = 20;
+
+    private final AccountService accountService;
+    private final ITemplateEngine templateEngine;
+    private final DataSource dataSource;
+    private final ApplicationContext applicationContext;
+    private final WarmupProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Integer> rounds = new ConcurrentHashMap<>();
+    private final AtomicLong durationNanos = new AtomicLong();
+    private volatile boolean complete;
+
+    public WarmupRunner(AccountService accountService, ITemplateEngine templateEngine, DataSource dataSource,
+                        ApplicationContext applicationContext, WarmupProperties properties, MeterRegistry meterRegistry) {
+        this.accountService = accountService;
+        this.templateEngine = templateEngine;
+        this.dataSource = dataSource;
+        this.applicationContext = applicationContext;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        TimeGauge.builder("bankapp.warmup.duration", durationNanos, TimeUnit.NANOSECONDS, AtomicLong::get)
+                .description("Time spent warming up before reporting ready")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!properties.enabled()) {
+            complete = true;
+            return;
+        }
+        long start = System.nanoTime();
+        long deadline = start + properties.maxDuration().toNanos();
+        try {
+            fillConnectionPool();
+            for (Map.Entry<String, Runnable> path : paths().entrySet()) {
+                if (System.nanoTime() >= deadline) {
+                    log.warn("Warm-up ran out of time before {}", path.getKey());
+                    break;
+                }
+                warm(path.getKey(), path.getValue(), deadline);
+            }
+        } catch (RuntimeException | SQLException e) {
+            log.warn("Warm-up failed; reporting ready without it", e);
+        } finally {
+            durationNanos.set(System.nanoTime() - start);
+            complete = true;
+            log.info("Warm-up finished in {} ms, rounds per path: {}", getDuration().toMillis(), rounds);
+        }
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+    public Duration getDuration() {
+        return Duration.ofNanos(durationNanos.get());
+    }
+
+    /**
+     * @return rounds run per path; a path that hit {@code maxRounds} did not converge
+     */
+    public Map<String, Integer> getRounds() {
+        return Map.copyOf(rounds);
+    }
+
+    /**
+     * Holds {@code minimumIdle} connections at once so the pool opens all of them now rather
+     * than while the first requests wait.
+     */
+    private void fillConnectionPool() throws SQLException {
+        int size = dataSource.isWrapperFor(HikariDataSource.class)
+                ? Math.max(1, dataSource.unwrap(HikariDataSource.class).getMinimumIdle())
+                : 1;
+        List<Connection> held = new ArrayList<>(size);
+        try {
+            for (int i = 0; i < size; i++) {
+                Connection connection = dataSource.getConnection();
+                held.add(connection);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("select 1");
+                }
+            }
+        } finally {
+            for (Connection connection : held) {
+                connection.close();
+            }
+        }
+    }
+
+    private Map<String, Runnable> paths() {
+        Account account = new Account();
+        account.setId(SYNTHETIC_ACCOUNT_ID);
+        account.setUsername(SYNTHETIC_USERNAME);
+        account.setBalance(new BigDecimal("1250.00"));
+        List<Transaction> history = new ArrayList<>(HISTORY_PAGE_SIZE);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < HISTORY_PAGE_SIZE; i++) {
+            Transaction transaction = new Transaction(BigDecimal.valueOf(10 + i), i % 2 == 0 ? "Deposit" : "Withdrawal",
+                    now.minusMinutes(i), account);
+            transaction.setId((long) -i);
+            history.add(transaction);
+        }
+
+        Map<String, Runnable> paths = new LinkedHashMap<>();
+        paths.put("account.lookup", () -> {
+            try {
+                accountService.findAccountByUsername(SYNTHETIC_USERNAME);
+            } catch (AccountNotFoundException expected) {
+                // The synthetic user does not exist; the query and mapping ran all the same
+            }
+        });
+        paths.put("login.lookup", () -> {
+            try {
+                accountService.loadUserByUsername(SYNTHETIC_USERNAME);
+            } catch (UsernameNotFoundException expected) {
+                // As above
+            }
+        });
+        paths.put("history", () -> accountService.getTransactionPage(account, null, HISTORY_PAGE_SIZE));
+        paths.put("history.lines", () -> accountService.getHistoryLines(SYNTHETIC_ACCOUNT_ID, null, HISTORY_PAGE_SIZE));
+        paths.put("accounts", () -> accountService.getAccountSummaries(SYNTHETIC_USERNAME, null, HISTORY_PAGE_SIZE));
+        paths.put("statement", () -> {
+            try {
+                accountService.writeStatement(SYNTHETIC_ACCOUNT_ID, StatementFormat.CSV, OutputStream.nullOutputStream());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        // Fragment then page, as the controller renders them; straight through the engine so
+        // nothing synthetic lands in the page cache
+        paths.put("template.dashboard", () -> {
+            String summary = templateEngine.process(AccountFragment.TEMPLATE, Set.of(AccountFragment.SUMMARY.selector()),
+                    new Context(Locale.ENGLISH, Map.of("account", account)));
+            templateEngine.process("dashboard", new Context(Locale.ENGLISH, Map.of("summary", summary)));
+        });
+        paths.put("template.transactions", () -> {
+            String page = templateEngine.process(AccountFragment.TEMPLATE, Set.of(AccountFragment.HISTORY.selector()),
+                    new Context(Locale.ENGLISH, Map.of("transactions", history)));
+            templateEngine.process("transactions", new Context(Locale.ENGLISH, Map.of("history", page)));
+        });
+        ObjectMapper objectMapper = applicationContext.getBeanProvider(ObjectMapper.class).getIfAvailable();
+        if (objectMapper != null) {
+            HistoryResponse page = new HistoryResponse(history.stream()
+                    .map(transaction -> new TransactionResponse(transaction.getId(), transaction.getType(),
+                            transaction.getAmount(), transaction.getTimestamp()))
+                    .toList(), "warmup");
+            paths.put("json.history", () -> {
+                try {
+                    objectMapper.writeValueAsBytes(page);
+                } catch (JsonProcessingException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+        if (applicationContext instanceof WebServerApplicationContext web && web.getWebServer() != null) {
+            paths.put("http.login", httpGet(web.getWebServer().getPort(), "/login"));
+        }
+        return paths;
+    }
+
+    /**
+     * A request through Tomcat, the security filter chain and view rendering over loopback.
+     */
+    private static Runnable httpGet(int port, String path) {
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                // Channel security redirects plain HTTP unless it came through the TLS-terminating proxy
+                .header("X-Forwarded-Proto", "https")
+                .timeout(Duration.ofSeconds(5))
+                .build();
+        return () -> {
+            try {
+                client.send(request, HttpResponse.BodyHandlers.discarding());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted during warm-up", e);
+            }
+        };
+    }
+
+    /**
+     * Runs {@code call} in rounds until the mean latency of a round is within
+     * {@code tolerance} of the round before, {@code maxRounds} is reached or time runs out.
+     */
+    private void warm(String path, Runnable call, long deadline) {
+        Timer latency = Timer.builder("bankapp.warmup.latency")
+                .description("Latency of warm-up calls")
+                .tag("path", path)
+                .register(meterRegistry);
+        AtomicLong roundMeanNanos = new AtomicLong();
+        Gauge.builder("bankapp.warmup.round.latency", roundMeanNanos, mean -> mean.get() / 1e9)
+                .description("Mean latency of the last warm-up round; flat once the path has converged")
+                .baseUnit("seconds")
+                .tag("path", path)
+                .register(meterRegistry);
+        Gauge.builder("bankapp.warmup.rounds", rounds, byPath -> byPath.getOrDefault(path, 0))
+                .description("Warm-up rounds the path needed to converge")
+                .tag("path", path)
+                .register(meterRegistry);
+
+        long previous = -1;
+        int round = 0;
+        while (round < properties.maxRounds() && System.nanoTime() < deadline) {
+            round++;
+            long roundStart = System.nanoTime();
+            for (int i = 0; i < properties.roundSize(); i++) {
+                long callStart = System.nanoTime();
+                call.run();
+                latency.record(System.nanoTime() - callStart, TimeUnit.NANOSECONDS);
+            }
+            long mean = (System.nanoTime() - roundStart) / properties.roundSize();
+            roundMeanNanos.set(mean);
+            if (previous > 0 && Math.abs(mean - previous) <= properties.tolerance() * previous) {
+                break;
+            }
+            previous = mean;
+        }
+        rounds.put(path, round);
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.bankapp.web;
+
+/**
+ * The account-dependent parts of pages, defined in {@value #TEMPLATE} and cached rendered.
+ */
+public enum AccountFragment {
+
+    /** Welcome, balance and account details on the dashboard; model: {@code account}. */
+    SUMMARY("summary"),
+
+    /** A page of the transaction table; model: {@code transactions}, {@code nextCursor}. */
+    HISTORY("history");
+
+    public static final String TEMPLATE = "fragments/account";
+
+    private final String selector;
+
+    AccountFragment(String selector) {
+        this.selector = selector;
+    }
+
+    public String selector() {
+        return selector;
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.bankapp.web;
+
+import com.example.bankapp.model.AccountVersion;
+import com.example.bankapp.service.AccountVersions;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.Context;
+
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongFunction;
+import java.util.function.Supplier;
+
+/**
+ * Serves account pages by {@link AccountVersion}: a reload with nothing changed costs one
+ * primary-key read and a 304, and a page that is re-rendered reuses the account-dependent
+ * fragments rendered for the same version on this instance.
+ * <p>
+ * The version and the data shown are read in one read-only transaction, and a version
+ * moves only after its change commits, so a fragment is never older than the version it
+ * is cached under, also when reads go to replicas. Versions live in the database, so a
+ * change made through any instance is seen by all.
+ * <p>
+ * ETags are weak (they name the account version, not the exact bytes) and include a digest
+ * of the templates, so a release with new markup does not revalidate old copies. Responses
+ * are {@code private, no-cache}: browsers keep them but must revalidate, and shared caches
+ * must not store them. A revalidated copy can be open in several tabs at once, so pages
+ * served this way must not carry anything meant for one use, such as idempotency keys.
+ */
+public class AccountPageCache {
+
+    private static final String CACHE_CONTROL = CacheControl.noCache().cachePrivate().getHeaderValue();
+
+    private final AccountVersions versions;
+    private final ITemplateEngine templateEngine;
+    private final TransactionTemplate readOnly;
+    private final boolean enabled;
+    private final String templateDigest;
+    private final long startedAt = System.currentTimeMillis();
+    private final Cache<FragmentKey, String> fragments;
+    private final MeterRegistry meterRegistry;
+
+    public AccountPageCache(AccountVersions versions, ITemplateEngine templateEngine,
+                            PlatformTransactionManager transactionManager, PageCacheProperties properties,
+                            String templateDigest, MeterRegistry meterRegistry) {
+        this.versions = versions;
+        this.templateEngine = templateEngine;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.enabled = properties.enabled();
+        this.templateDigest = templateDigest;
+        this.meterRegistry = meterRegistry;
+        this.fragments = Caffeine.newBuilder()
+                .maximumSize(properties.maxFragments())
+                .expireAfterAccess(properties.idleTimeout())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, fragments, "fragments");
+    }
+
+    /**
+     * Runs {@code load} with the account's current version, in the same read-only transaction.
+     * With a {@code request}, first answers its conditional headers: if the client's copy is
+     * current the response becomes a 304, {@code request.isNotModified()} is {@code true} and
+     * {@code load} is not run.
+     *
+     * @param request the GET to revalidate, or {@code null} to load unconditionally
+     * @param page    which of the account's pages is served
+     * @param variant anything else the page depends on, such as a cursor; may be {@code null}
+     * @return what {@code load} returned, or {@code null} for a 304
+     */
+    public <T> T load(ServletWebRequest request, String page, Long accountId, String variant, LongFunction<T> load) {
+        if (!enabled) {
+            return load.apply(-1);
+        }
+        return readOnly.execute(status -> {
+            AccountVersion version = versions.current(accountId);
+            if (request != null) {
+                HttpServletResponse response = request.getResponse();
+                if (response != null) {
+                    response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+                }
+                if (request.checkNotModified(etag(page, version, variant), lastModified(version))) {
+                    Counter.builder("bankapp.page.not.modified")
+                            .description("Page requests answered with 304 because the account had not changed")
+                            .tag("page", page)
+                            .register(meterRegistry)
+                            .increment();
+                    return null;
+                }
+            }
+            return load.apply(version.getVersion());
+        });
+    }
+
+    /**
+     * The fragment as rendered for the account at {@code version}, rendering it on a miss.
+     *
+     * @param version as passed to the {@link #load} callback; negative disables caching
+     * @param model   the fragment's model, only built on a miss and read at {@code version}
+     */
+    public String fragment(AccountFragment fragment, Long accountId, long version, String variant,
+                           Supplier<Map<String, Object>> model) {
+        if (version < 0) {
+            return render(fragment, model.get());
+        }
+        FragmentKey key = new FragmentKey(fragment, accountId, version, variant);
+        String html = fragments.getIfPresent(key);
+        if (html == null) {
+            // Not computed inside the cache: loading and rendering must not hold up other keys
+            html = render(fragment, model.get());
+            fragments.put(key, html);
+        }
+        return html;
+    }
+
+    private String render(AccountFragment fragment, Map<String, Object> model) {
+        long start = System.nanoTime();
+        String html = templateEngine.process(AccountFragment.TEMPLATE, Set.of(fragment.selector()),
+                new Context(LocaleContextHolder.getLocale(), model));
+        Timer.builder("bankapp.page.fragment.render")
+                .description("Time to render an account fragment that was not cached")
+                .tag("fragment", fragment.selector())
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return html;
+    }
+
+    private String etag(String page, AccountVersion version, String variant) {
+        String tag = page + "-" + version.getAccountId() + "-" + version.getVersion() + "-" + templateDigest;
+        return "W/\"" + (variant == null ? tag : tag + "-" + Integer.toHexString(variant.hashCode())) + "\"";
+    }
+
+    /**
+     * When the account last changed, but no earlier than this instance's start, which stands
+     * in for the templates' age for clients that only send {@code If-Modified-Since}.
+     */
+    private long lastModified(AccountVersion version) {
+        if (version.getModifiedAt() == null) {
+            return startedAt;
+        }
+        return Math.max(startedAt, version.getModifiedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+    }
+
+    private record FragmentKey(AccountFragment fragment, Long accountId, long version, String variant) {
+    }
+}
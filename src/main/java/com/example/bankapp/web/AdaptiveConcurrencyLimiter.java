@@ -0,0 +1,163 @@
+package com.example.bankapp.web;
+
+import java.time.Duration;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrency limit that adapts to observed latency (AIMD): each fast completion while the
+ * limit is in use raises it by {@code 1/limit}, roughly one per limit's worth of requests,
+ * and a completion slower than {@code tolerance} times the long-run average, or a failed
+ * one, cuts it by 10%. The average follows lasting changes, so after a sustained slowdown
+ * the limit settles at what the slower database can serve instead of staying at the minimum.
+ * <p>
+ * Requests over the limit wait in a short FIFO-ish queue for at most {@code maxWait}; when
+ * the queue is full or the wait runs out they are refused, so callers can shed load instead
+ * of stacking threads behind a slow database.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double BACKOFF = 0.9;
+    private static final double LONG_RTT_SMOOTHING = 0.05;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final int queueSize;
+    private final long maxWaitNanos;
+    private final double tolerance;
+
+    private final ReentrantLock lock = new ReentrantLock(true);
+    private final Condition permitReleased = lock.newCondition();
+    private double limit;
+    private int inFlight;
+    private int waiting;
+    private double longRttNanos;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, int queueSize, Duration maxWait,
+                                      double tolerance) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 1 <= min <= max");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.queueSize = queueSize;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.tolerance = tolerance;
+        this.limit = Math.min(Math.max(initialLimit, minLimit), maxLimit);
+    }
+
+    /**
+     * Takes a permit, waiting in the queue if the limit is reached.
+     *
+     * @return {@code false} if the request should be refused
+     */
+    public boolean tryAcquire() {
+        lock.lock();
+        try {
+            if (inFlight < currentLimit()) {
+                inFlight++;
+                return true;
+            }
+            if (waiting >= queueSize) {
+                return false;
+            }
+            waiting++;
+            try {
+                long remaining = maxWaitNanos;
+                while (inFlight >= currentLimit()) {
+                    if (remaining <= 0) {
+                        return false;
+                    }
+                    remaining = permitReleased.awaitNanos(remaining);
+                }
+                inFlight++;
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            } finally {
+                waiting--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns a permit and feeds the request's latency into the limit.
+     *
+     * @param failed whether the request failed in a way that suggests overload
+     */
+    public void release(long rttNanos, boolean failed) {
+        lock.lock();
+        try {
+            int inFlightBefore = inFlight;
+            inFlight--;
+            adjust(rttNanos, failed, inFlightBefore);
+            permitReleased.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns a permit without feeding the limit, for requests that did not do the work it
+     * guards, such as a 304 or a request refused before reaching the database. Their latency
+     * would drag the average down until every real request looked slow.
+     */
+    public void release() {
+        lock.lock();
+        try {
+            inFlight--;
+            permitReleased.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void adjust(long rttNanos, boolean failed, int inFlightBefore) {
+        if (longRttNanos == 0) {
+            longRttNanos = rttNanos;
+        }
+        if (failed || rttNanos > longRttNanos * tolerance) {
+            limit = Math.max(minLimit, limit * BACKOFF);
+        } else if (inFlightBefore * 2 >= limit) {
+            // Only grow while the limit is actually being used
+            limit = Math.min(maxLimit, limit + 1.0 / limit);
+        }
+        if (!failed) {
+            longRttNanos += (rttNanos - longRttNanos) * LONG_RTT_SMOOTHING;
+        }
+    }
+
+    private int currentLimit() {
+        return (int) limit;
+    }
+
+    public int getLimit() {
+        lock.lock();
+        try {
+            return currentLimit();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getWaiting() {
+        lock.lock();
+        try {
+            return waiting;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.bankapp.web;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Sheds load in front of the database-bound endpoints. Each endpoint class has its own
+ * {@link AdaptiveConcurrencyLimiter}; a request that cannot get a permit is answered with
+ * 503 and {@code Retry-After} straight away, without occupying a worker thread behind a
+ * slow database. Everything else, including login, pages without SQL and the actuator
+ * health probes, is never limited.
+ * <p>
+ * Only requests that did the guarded work feed the limit: a 304 answered from the page
+ * version, or a 4xx such as a rate-limited or invalid request, returns its permit without
+ * a latency sample. Mutations answered with a redirect did their work and are sampled.
+ * <p>
+ * Published per endpoint class: {@code bankapp.concurrency.limit},
+ * {@code bankapp.concurrency.inflight}, {@code bankapp.concurrency.queued} and
+ * {@code bankapp.concurrency.rejected}.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    static final String MUTATION = "mutation";
+    static final String HISTORY = "history";
+    static final String EXPORT = "export";
+
+    private static final Set<String> MUTATION_PATHS = Set.of("/deposit", "/withdraw", "/transfer", "/transfers/bulk",
+            "/api/v1/account/deposit", "/api/v1/account/withdraw", "/api/v1/account/transfers");
+    private static final Set<String> HISTORY_PATHS = Set.of("/transactions", "/dashboard",
+            "/api/v1/account", "/api/v1/account/transactions");
+
+    private final Map<String, AdaptiveConcurrencyLimiter> limiters = new LinkedHashMap<>();
+    private final Map<String, Counter> rejected = new LinkedHashMap<>();
+    private final String retryAfterSeconds;
+
+    public ConcurrencyLimitFilter(ConcurrencyLimitProperties properties, MeterRegistry meterRegistry) {
+        this.retryAfterSeconds = String.valueOf(Math.max(1, properties.retryAfter().toSeconds()));
+        for (String name : new String[]{MUTATION, HISTORY, EXPORT}) {
+            ConcurrencyLimitProperties.Endpoint endpoint = properties.endpoint(name);
+            AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(endpoint.initialLimit(),
+                    endpoint.minLimit(), endpoint.maxLimit(), endpoint.queueSize(), endpoint.maxWait(), properties.tolerance());
+            limiters.put(name, limiter);
+            Gauge.builder("bankapp.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                    .description("Current adaptive concurrency limit")
+                    .tag("endpoint", name)
+                    .register(meterRegistry);
+            Gauge.builder("bankapp.concurrency.inflight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                    .description("Requests holding a permit")
+                    .tag("endpoint", name)
+                    .register(meterRegistry);
+            Gauge.builder("bankapp.concurrency.queued", limiter, AdaptiveConcurrencyLimiter::getWaiting)
+                    .description("Requests waiting for a permit")
+                    .tag("endpoint", name)
+                    .register(meterRegistry);
+            rejected.put(name, Counter.builder("bankapp.concurrency.rejected")
+                    .description("Requests refused with 503 because the limit and queue were full")
+                    .tag("endpoint", name)
+                    .register(meterRegistry));
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String endpoint = classify(request);
+        if (endpoint == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        AdaptiveConcurrencyLimiter limiter = limiters.get(endpoint);
+        if (!limiter.tryAcquire()) {
+            rejected.get(endpoint).increment();
+            response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Server busy, please retry shortly");
+            return;
+        }
+
+        long start = System.nanoTime();
+        Permit permit = new Permit(limiter, start);
+        try {
+            chain.doFilter(request, response);
+        } catch (IOException | ServletException | RuntimeException e) {
+            permit.release(true);
+            throw e;
+        }
+        if (request.isAsyncStarted()) {
+            // Streaming responses hold their permit until the async work completes
+            request.getAsyncContext().addListener(permit);
+        } else if (didGuardedWork(response.getStatus())) {
+            permit.release(response.getStatus() >= 500);
+        } else {
+            permit.releaseUnsampled();
+        }
+    }
+
+    static boolean didGuardedWork(int status) {
+        return status != HttpServletResponse.SC_NOT_MODIFIED && (status < 400 || status >= 500);
+    }
+
+    static String classify(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        String method = request.getMethod();
+        if ("POST".equals(method) && MUTATION_PATHS.contains(path)) {
+            return MUTATION;
+        }
+        if ("GET".equals(method) && HISTORY_PATHS.contains(path)) {
+            return HISTORY;
+        }
+        if ("GET".equals(method) && "/statement".equals(path)) {
+            return EXPORT;
+        }
+        return null;
+    }
+
+    private static final class Permit implements AsyncListener {
+        private final AdaptiveConcurrencyLimiter limiter;
+        private final long start;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        Permit(AdaptiveConcurrencyLimiter limiter, long start) {
+            this.limiter = limiter;
+            this.start = start;
+        }
+
+        void release(boolean failed) {
+            if (released.compareAndSet(false, true)) {
+                limiter.release(System.nanoTime() - start, failed);
+            }
+        }
+
+        void releaseUnsampled() {
+            if (released.compareAndSet(false, true)) {
+                limiter.release();
+            }
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release(false);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release(true);
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release(true);
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
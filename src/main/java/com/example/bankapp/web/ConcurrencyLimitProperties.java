@@ -0,0 +1,41 @@
+package com.example.bankapp.web;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Adaptive concurrency limits per endpoint class, e.g.
+ * {@code bankapp.concurrency-limit.endpoints.mutation.max-limit=40}.
+ *
+ * @param tolerance  a request slower than this multiple of the average latency shrinks the limit
+ * @param retryAfter sent with refused requests
+ * @param endpoints  limits keyed by endpoint class ({@code mutation}, {@code history}, {@code export})
+ */
+@ConfigurationProperties("bankapp.concurrency-limit")
+public record ConcurrencyLimitProperties(@DefaultValue("true") boolean enabled,
+                                         @DefaultValue("2.0") double tolerance,
+                                         @DefaultValue("1s") Duration retryAfter,
+                                         Map<String, Endpoint> endpoints) {
+
+    public ConcurrencyLimitProperties {
+        endpoints = endpoints == null ? Map.of() : Map.copyOf(endpoints);
+    }
+
+    public Endpoint endpoint(String name) {
+        return endpoints.getOrDefault(name, new Endpoint(20, 4, 100, 20, Duration.ofMillis(100)));
+    }
+
+    /**
+     * @param queueSize requests allowed to wait for a permit
+     * @param maxWait   longest a request waits before it is refused
+     */
+    public record Endpoint(@DefaultValue("20") int initialLimit,
+                           @DefaultValue("4") int minLimit,
+                           @DefaultValue("100") int maxLimit,
+                           @DefaultValue("20") int queueSize,
+                           @DefaultValue("100ms") Duration maxWait) {
+    }
+}
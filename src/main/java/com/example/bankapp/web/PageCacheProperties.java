@@ -0,0 +1,19 @@
+package com.example.bankapp.web;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Conditional GETs and rendered-fragment caching for account pages, see {@link AccountPageCache}.
+ *
+ * @param enabled      with {@code false} every request loads and renders in full
+ * @param maxFragments rendered fragments kept per instance
+ * @param idleTimeout  how long a fragment nobody asks for is kept
+ */
+@ConfigurationProperties("bankapp.page-cache")
+public record PageCacheProperties(@DefaultValue("true") boolean enabled,
+                                  @DefaultValue("10000") long maxFragments,
+                                  @DefaultValue("10m") Duration idleTimeout) {
+}
@@ -0,0 +1,45 @@
+package com.example.bankapp.web;
+
+import io.micrometer.core.instrument.Counter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.io.IOException;
+import java.security.Principal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies one operation's per-user {@link TokenBucketRateLimiter} before the controller
+ * runs, so a refused request never reaches the database. Refusals get 429 with
+ * {@code Retry-After}.
+ */
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    private final TokenBucketRateLimiter limiter;
+    private final Counter rejected;
+
+    public RateLimitInterceptor(TokenBucketRateLimiter limiter, Counter rejected) {
+        this.limiter = limiter;
+        this.rejected = rejected;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        Principal principal = request.getUserPrincipal();
+        if (principal == null || !"POST".equals(request.getMethod())) {
+            return true;
+        }
+        long waitNanos = limiter.tryAcquire(principal.getName());
+        if (waitNanos == 0) {
+            return true;
+        }
+        rejected.increment();
+        long retryAfterSeconds = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), "Too many requests, please slow down");
+        return false;
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.bankapp.web;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.Map;
+
+/**
+ * Per-user rate limits for money-moving operations, e.g.
+ * {@code bankapp.rate-limit.operations.transfer.permits-per-second=2}.
+ *
+ * @param maxUsers   users tracked per operation before the least recently seen are evicted
+ * @param operations limits keyed by operation ({@code deposit}, {@code withdraw}, {@code transfer},
+ *                   {@code bulk-transfer})
+ */
+@ConfigurationProperties("bankapp.rate-limit")
+public record RateLimitProperties(@DefaultValue("true") boolean enabled,
+                                  @DefaultValue("100000") long maxUsers,
+                                  Map<String, Rate> operations) {
+
+    public RateLimitProperties {
+        operations = operations == null ? Map.of() : Map.copyOf(operations);
+    }
+
+    public Rate operation(String name) {
+        return operations.getOrDefault(name, new Rate(5, 10));
+    }
+
+    /**
+     * @param permitsPerSecond sustained requests per second
+     * @param burst            requests allowed back to back after an idle period
+     */
+    public record Rate(@DefaultValue("5") double permitsPerSecond,
+                       @DefaultValue("10") int burst) {
+    }
+}
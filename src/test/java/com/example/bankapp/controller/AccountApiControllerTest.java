@@ -0,0 +1,221 @@
+package com.example.bankapp.controller;
+
+import com.example.bankapp.model.Account;
+import com.example.bankapp.model.AccountPrincipal;
+import com.example.bankapp.model.AccountSummary;
+import com.example.bankapp.model.AccountVersion;
+import com.example.bankapp.model.StatementLine;
+import com.example.bankapp.service.AccountService;
+import com.example.bankapp.service.AccountVersions;
+import com.example.bankapp.service.CursorPage;
+import com.example.bankapp.service.InsufficientFundsException;
+import com.example.bankapp.service.MutationReceipt;
+import com.example.bankapp.web.AccountPageCache;
+import com.example.bankapp.web.PageCacheProperties;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.thymeleaf.TemplateEngine;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class AccountApiControllerTest {
+
+    @Mock
+    private AccountService accountService;
+
+    @Mock
+    private AccountVersions accountVersions;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private MockMvc mockMvc;
+
+    private Account account;
+    private UsernamePasswordAuthenticationToken principal;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(accountVersions.current(anyLong())).thenAnswer(invocation -> new AccountVersion(invocation.getArgument(0), 3, null));
+        AccountPageCache pageCache = new AccountPageCache(accountVersions, new TemplateEngine(), transactionManager,
+                new PageCacheProperties(true, 100, Duration.ofMinutes(10)), "test", new SimpleMeterRegistry());
+        // Serialized as Boot configures Jackson for the application
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .featuresToEnable(JsonGenerator.Feature.WRITE_BIGDECIMAL_AS_PLAIN)
+                .build();
+        mockMvc = MockMvcBuilders.standaloneSetup(new AccountApiController(accountService, pageCache))
+                .setMessageConverters(new MappingJackson2HttpMessageConverter(objectMapper))
+                .build();
+
+        account = new Account();
+        account.setId(1L);
+        account.setUsername("John Doe");
+        account.setBalance(new BigDecimal("1000.00"));
+        AccountPrincipal user = new AccountPrincipal(1L, "John Doe", null);
+        principal = UsernamePasswordAuthenticationToken.authenticated(user, null, user.getAuthorities());
+    }
+
+    @Test
+    void testBalance_RevalidatedByVersion() throws Exception {
+        AccountSummary summary = mock(AccountSummary.class);
+        when(summary.getId()).thenReturn(1L);
+        when(summary.getUsername()).thenReturn("John Doe");
+        when(summary.getBalance()).thenReturn(new BigDecimal("1000.00"));
+        when(accountService.getAccountSummary(1L)).thenReturn(summary);
+
+        String etag = mockMvc.perform(get("/api/v1/account").principal(principal))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.id").value(1))
+                .andExpect(jsonPath("$.username").value("John Doe"))
+                .andExpect(jsonPath("$.balance").value(1000.00))
+                .andExpect(header().string("Cache-Control", "no-cache, private"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/v1/account").principal(principal).header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        verify(accountService, times(1)).getAccountSummary(1L);
+        verify(accountService, never()).findAccountId(any());
+    }
+
+    @Test
+    void testTransactions_PageOfLines() throws Exception {
+        LocalDateTime at = LocalDateTime.of(2024, 1, 1, 12, 0);
+        when(accountService.getHistoryLines(1L, null, 2)).thenReturn(new CursorPage<>(List.of(
+                new StatementLine(7L, at, "Deposit", new BigDecimal("25.00")),
+                new StatementLine(6L, at.minusMinutes(1), "Withdrawal", new BigDecimal("5.00"))), "next"));
+        when(accountService.getHistoryLines(1L, "next", 2)).thenReturn(new CursorPage<>(List.of(), null));
+
+        mockMvc.perform(get("/api/v1/account/transactions").param("limit", "2").principal(principal))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[0].id").value(7))
+                .andExpect(jsonPath("$.items[0].type").value("Deposit"))
+                .andExpect(jsonPath("$.items[0].timestamp").value("2024-01-01T12:00:00"))
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+
+        mockMvc.perform(get("/api/v1/account/transactions").param("limit", "2").param("cursor", "next").principal(principal))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(0))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    void testTransactions_InvalidCursor() throws Exception {
+        when(accountService.getHistoryLines(1L, "garbage", 50)).thenThrow(new IllegalArgumentException("Invalid history cursor"));
+
+        mockMvc.perform(get("/api/v1/account/transactions").param("cursor", "garbage").principal(principal))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Invalid history cursor"));
+    }
+
+    @Test
+    void testDeposit_ReturnsReceiptAndBalance() throws Exception {
+        when(accountService.findAccountByUsername("John Doe")).thenReturn(account);
+        when(accountService.deposit(account, new BigDecimal("25"), "key-1")).thenReturn(new MutationReceipt(11L, false));
+
+        mockMvc.perform(post("/api/v1/account/deposit").principal(principal)
+                        .header("Idempotency-Key", "key-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"amount\":25}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.transactionId").value(11))
+                .andExpect(jsonPath("$.replayed").value(false))
+                .andExpect(jsonPath("$.balance").value(1000.00));
+    }
+
+    @Test
+    void testDeposit_InvalidAmountIsBadRequest() throws Exception {
+        when(accountService.findAccountByUsername("John Doe")).thenReturn(account);
+        when(accountService.deposit(account, new BigDecimal("-5"), null))
+                .thenThrow(new IllegalArgumentException("Amount must be positive"));
+
+        mockMvc.perform(post("/api/v1/account/deposit").principal(principal)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"amount\":-5}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Amount must be positive"));
+    }
+
+    @Test
+    void testWithdraw_InsufficientFunds() throws Exception {
+        when(accountService.findAccountByUsername("John Doe")).thenReturn(account);
+        when(accountService.withdraw(account, new BigDecimal("5000"), null))
+                .thenThrow(new InsufficientFundsException("Insufficient funds"));
+
+        mockMvc.perform(post("/api/v1/account/withdraw").principal(principal)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"amount\":5000}"))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.message").value("Insufficient funds"));
+    }
+
+    @Test
+    void testTransfer_ToSelfIsBadRequest() throws Exception {
+        when(accountService.findAccountByUsername("John Doe")).thenReturn(account);
+        when(accountService.transferAmount(account, "John Doe", new BigDecimal("10"), null))
+                .thenThrow(new IllegalArgumentException("Cannot transfer to the same account"));
+
+        mockMvc.perform(post("/api/v1/account/transfers").principal(principal)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"toUsername\":\"John Doe\",\"amount\":10}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Cannot transfer to the same account"));
+    }
+
+    @Test
+    void testTransfer_ReplayedKey() throws Exception {
+        when(accountService.findAccountByUsername("John Doe")).thenReturn(account);
+        when(accountService.transferAmount(account, "Jane Smith", new BigDecimal("10.50"), "key-2"))
+                .thenReturn(new MutationReceipt(12L, true));
+
+        mockMvc.perform(post("/api/v1/account/transfers").principal(principal)
+                        .header("Idempotency-Key", "key-2")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"toUsername\":\"Jane Smith\",\"amount\":10.50}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.transactionId").value(12))
+                .andExpect(jsonPath("$.replayed").value(true))
+                .andExpect(jsonPath("$.balance").value(1000.00));
+    }
+
+    @Test
+    void testBalance_FallsBackToUsernameLookup() throws Exception {
+        AccountSummary summary = mock(AccountSummary.class);
+        when(summary.getId()).thenReturn(1L);
+        when(summary.getBalance()).thenReturn(new BigDecimal("5.00"));
+        when(accountService.findAccountId("John Doe")).thenReturn(1L);
+        when(accountService.getAccountSummary(1L)).thenReturn(summary);
+
+        mockMvc.perform(get("/api/v1/account").principal(new UsernamePasswordAuthenticationToken("John Doe", null)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(1))
+                .andExpect(jsonPath("$.balance").value(5.00));
+    }
+}
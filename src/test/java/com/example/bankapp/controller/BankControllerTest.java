@@ -1,19 +1,40 @@
 package com.example.bankapp.controller;
 
 import com.example.bankapp.model.Account;
+import com.example.bankapp.model.AccountVersion;
+import com.example.bankapp.model.Transaction;
 import com.example.bankapp.service.AccountService;
+import com.example.bankapp.service.AccountVersions;
+import com.example.bankapp.service.BulkTransferResult;
+import com.example.bankapp.service.BulkTransferService;
+import com.example.bankapp.service.CursorPage;
+import com.example.bankapp.service.InsufficientFundsException;
+import com.example.bankapp.service.TransferInstruction;
+import com.example.bankapp.web.AccountPageCache;
+import com.example.bankapp.web.PageCacheProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.servlet.view.InternalResourceViewResolver;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
 
 import java.math.BigDecimal;
-import java.util.Arrays;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
 
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -23,8 +44,14 @@ class BankControllerTest {
     @Mock
     private AccountService accountService;
 
-    @InjectMocks
-    private BankController bankController;
+    @Mock
+    private BulkTransferService bulkTransferService;
+
+    @Mock
+    private AccountVersions accountVersions;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
 
     private MockMvc mockMvc;
 
@@ -34,7 +61,18 @@ class BankControllerTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        mockMvc = MockMvcBuilders.standaloneSetup(bankController).build();
+        when(accountVersions.current(anyLong())).thenAnswer(invocation -> new AccountVersion(invocation.getArgument(0), 3, null));
+        ClassLoaderTemplateResolver templateResolver = new ClassLoaderTemplateResolver();
+        templateResolver.setPrefix("templates/");
+        templateResolver.setSuffix(".html");
+        SpringTemplateEngine templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(templateResolver);
+        AccountPageCache pageCache = new AccountPageCache(accountVersions, templateEngine, transactionManager,
+                new PageCacheProperties(true, 100, Duration.ofMinutes(10)), "test", new SimpleMeterRegistry());
+        BankController bankController = new BankController(accountService, bulkTransferService, pageCache);
+        mockMvc = MockMvcBuilders.standaloneSetup(bankController)
+                .setViewResolvers(new InternalResourceViewResolver("/templates/", ".html"))
+                .build();
 
         account1 = new Account();
         account1.setUsername("John Doe");
@@ -51,14 +89,25 @@ class BankControllerTest {
 
     @Test
     void testHome() throws Exception {
-        when(accountService.getAllAccounts()).thenReturn(Arrays.asList(account1, account2));
+        when(accountService.getAccountSummaries(null, null, 50)).thenReturn(new CursorPage<>(List.of(), null));
 
         mockMvc.perform(get("/"))
                 .andExpect(status().isOk())
                 .andExpect(view().name("home"))
                 .andExpect(model().attributeExists("accounts"));
 
-        verify(accountService, times(1)).getAllAccounts();
+        verify(accountService, times(1)).getAccountSummaries(null, null, 50);
+        verify(accountService, never()).getAllAccounts();
+    }
+
+    @Test
+    void testHome_FilteredPage() throws Exception {
+        when(accountService.getAccountSummaries("jo", 40L, 50)).thenReturn(new CursorPage<>(List.of(), "90"));
+
+        mockMvc.perform(get("/accounts").param("q", "jo").param("after", "40"))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("nextCursor", "90"))
+                .andExpect(model().attribute("q", "jo"));
     }
 
     @Test
@@ -141,4 +190,156 @@ class BankControllerTest {
                 .andExpect(view().name("error"))
                 .andExpect(model().attribute("error", "Account not found"));
     }
+
+    @Test
+    void testViewAccount_NotModified() throws Exception {
+        when(accountService.getAccountById(1L)).thenReturn(account1);
+
+        String etag = mockMvc.perform(get("/account/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "no-cache, private"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/account/1").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        verify(accountService, times(1)).getAccountById(1L);
+    }
+
+    @Test
+    void testTransactionHistory_FirstPage() throws Exception {
+        CursorPage<Transaction> page = new CursorPage<>(
+                List.of(new Transaction(new BigDecimal("25"), "Deposit", LocalDateTime.now(), account1)), "next");
+        when(accountService.findAccountByUsername("John Doe")).thenReturn(account1);
+        when(accountService.getTransactionPage(account1, null, 50)).thenReturn(page);
+
+        mockMvc.perform(get("/transactions").principal(new UsernamePasswordAuthenticationToken("John Doe", null)))
+                .andExpect(status().isOk())
+                .andExpect(view().name("transactions"))
+                .andExpect(model().attribute("history", containsString("Deposit")))
+                .andExpect(model().attribute("history", containsString("/transactions?cursor=next")));
+    }
+
+    @Test
+    void testTransactionHistory_InvalidCursor() throws Exception {
+        when(accountService.findAccountByUsername("John Doe")).thenReturn(account1);
+        when(accountService.getTransactionPage(account1, "garbage", 50))
+                .thenThrow(new IllegalArgumentException("Invalid history cursor"));
+
+        mockMvc.perform(get("/transactions").param("cursor", "garbage")
+                        .principal(new UsernamePasswordAuthenticationToken("John Doe", null)))
+                .andExpect(status().isOk())
+                .andExpect(view().name("error"))
+                .andExpect(model().attribute("error", "Invalid transaction page"));
+    }
+
+    @Test
+    void testDashboard_RevalidatesAndReusesFragment() throws Exception {
+        when(accountService.findAccountByUsername("John Doe")).thenReturn(account1);
+        UsernamePasswordAuthenticationToken principal = new UsernamePasswordAuthenticationToken("John Doe", null);
+
+        String etag = mockMvc.perform(get("/dashboard").principal(principal))
+                .andExpect(status().isOk())
+                .andExpect(view().name("dashboard"))
+                .andExpect(model().attribute("summary", containsString("Current Balance: $1000")))
+                .andExpect(model().attributeDoesNotExist("depositKey", "withdrawKey", "transferKey"))
+                .andExpect(header().string("Cache-Control", "no-cache, private"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/dashboard").principal(principal).header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        // Without the validator the page is rendered again, around the fragment cached for version 3
+        mockMvc.perform(get("/dashboard").principal(principal))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("summary", containsString("Current Balance: $1000")));
+
+        // One lookup per request for the account id, plus one for the only fragment render
+        verify(accountService, times(4)).findAccountByUsername("John Doe");
+    }
+
+    @Test
+    void testDashboard_NewVersionChangesETag() throws Exception {
+        when(accountService.findAccountByUsername("John Doe")).thenReturn(account1);
+        UsernamePasswordAuthenticationToken principal = new UsernamePasswordAuthenticationToken("John Doe", null);
+        String etag = mockMvc.perform(get("/dashboard").principal(principal))
+                .andReturn().getResponse().getHeader("ETag");
+
+        when(accountVersions.current(1L)).thenReturn(new AccountVersion(1L, 4, null));
+        account1.setBalance(BigDecimal.valueOf(1025));
+
+        mockMvc.perform(get("/dashboard").principal(principal).header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", not(etag)))
+                .andExpect(model().attribute("summary", containsString("Current Balance: $1025")));
+    }
+
+    @Test
+    void testDownloadStatement_UnknownFormat() throws Exception {
+        mockMvc.perform(get("/statement").param("format", "xml")
+                        .principal(new UsernamePasswordAuthenticationToken("John Doe", null)))
+                .andExpect(status().isBadRequest());
+
+        verify(accountService, never()).findAccountByUsername(any());
+    }
+
+    @Test
+    void testDeposit_HeaderKeyTakesPrecedence() throws Exception {
+        when(accountService.findAccountByUsername("John Doe")).thenReturn(account1);
+
+        mockMvc.perform(post("/deposit").param("amount", "25").param("idempotencyKey", "form-key")
+                        .header("Idempotency-Key", "header-key")
+                        .principal(new UsernamePasswordAuthenticationToken("John Doe", null)))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrl("/dashboard"));
+
+        verify(accountService).deposit(account1, new BigDecimal("25"), "header-key");
+    }
+
+    @Test
+    void testTransfer_FailureRendersDashboardWithError() throws Exception {
+        when(accountService.findAccountByUsername("John Doe")).thenReturn(account1);
+        when(accountService.transferAmount(account1, "Jane Smith", new BigDecimal("5000"), "form-key"))
+                .thenThrow(new InsufficientFundsException("Insufficient funds"));
+
+        mockMvc.perform(post("/transfer").param("toUsername", "Jane Smith").param("amount", "5000")
+                        .param("idempotencyKey", "form-key")
+                        .principal(new UsernamePasswordAuthenticationToken("John Doe", null)))
+                .andExpect(status().isOk())
+                .andExpect(view().name("dashboard"))
+                .andExpect(model().attribute("error", "Insufficient funds"));
+    }
+
+    @Test
+    void testWithdraw_UnexpectedFailureHidesDetails() throws Exception {
+        when(accountService.findAccountByUsername("John Doe")).thenReturn(account1);
+        when(accountService.withdraw(account1, new BigDecimal("25"), null))
+                .thenThrow(new DataIntegrityViolationException("Duplicate entry '1-x' for key 'PRIMARY'"));
+
+        mockMvc.perform(post("/withdraw").param("amount", "25")
+                        .principal(new UsernamePasswordAuthenticationToken("John Doe", null)))
+                .andExpect(status().isOk())
+                .andExpect(view().name("dashboard"))
+                .andExpect(model().attribute("error", "The operation could not be completed, please try again"));
+    }
+
+    @Test
+    void testBulkTransfer_SendsFromSignedInAccount() throws Exception {
+        List<TransferInstruction> expected = List.of(
+                new TransferInstruction("John Doe", "Jane Smith", new BigDecimal("10.50")),
+                new TransferInstruction("John Doe", "Bob", new BigDecimal("3")));
+        when(bulkTransferService.transfer(expected)).thenReturn(new BulkTransferResult(List.of(
+                new BulkTransferResult.Item(1, BulkTransferResult.Status.APPLIED, null, 11L),
+                new BulkTransferResult.Item(2, BulkTransferResult.Status.REJECTED, "Recipient account not found", null)), 4));
+
+        mockMvc.perform(post("/transfers/bulk")
+                        .contentType("application/json")
+                        .content("[{\"fromUsername\":\"Jane Smith\",\"toUsername\":\"Jane Smith\",\"amount\":10.50},"
+                                + "{\"toUsername\":\"Bob\",\"amount\":3}]")
+                        .principal(new UsernamePasswordAuthenticationToken("John Doe", null)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.applied").value(1))
+                .andExpect(jsonPath("$.rejected").value(1))
+                .andExpect(jsonPath("$.items[1].message").value("Recipient account not found"));
+    }
 }
@@ -0,0 +1,82 @@
+package com.example.bankapp.datasource;
+
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockHttpSession;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReadYourWritesFilterTest {
+
+    private final ReadYourWritesFilter filter = new ReadYourWritesFilter(Duration.ofSeconds(5));
+    private final MockHttpSession session = new MockHttpSession();
+
+    @Test
+    void readsAfterAWriteStayOnThePrimary() throws Exception {
+        assertThat(get()).isFalse();
+
+        MockHttpServletRequest post = new MockHttpServletRequest("POST", "/deposit");
+        post.setSession(session);
+        filter.doFilter(post, new MockHttpServletResponse(), (request, response) -> ((MockHttpServletResponse) response).setStatus(302));
+
+        assertThat(get()).isTrue();
+        assertThat(ReplicaRouting.isPrimaryOnly()).isFalse();
+    }
+
+    @Test
+    void markerIsSavedWithTheRedirect() throws Exception {
+        MockHttpServletRequest post = new MockHttpServletRequest("POST", "/deposit");
+        post.setSession(session);
+        AtomicBoolean markedWhenCommitted = new AtomicBoolean();
+        filter.doFilter(post, new MockHttpServletResponse(), (request, response) -> {
+            ((MockHttpServletResponse) response).sendRedirect("/dashboard");
+            // The session is saved as the redirect commits, before the filter continues
+            markedWhenCommitted.set(session.getAttribute(ReadYourWritesFilter.LAST_WRITE_ATTRIBUTE) != null);
+        });
+
+        assertThat(markedWhenCommitted).isTrue();
+        assertThat(get()).isTrue();
+    }
+
+    @Test
+    void failedWritesDoNotPinTheSession() throws Exception {
+        MockHttpServletRequest post = new MockHttpServletRequest("POST", "/deposit");
+        post.setSession(session);
+        filter.doFilter(post, new MockHttpServletResponse(), (request, response) -> ((MockHttpServletResponse) response).setStatus(500));
+
+        assertThat(get()).isFalse();
+    }
+
+    @Test
+    void failedWritesKeepAnEarlierWrite() throws Exception {
+        long earlier = System.currentTimeMillis() - 1_000;
+        session.setAttribute(ReadYourWritesFilter.LAST_WRITE_ATTRIBUTE, earlier);
+        MockHttpServletRequest post = new MockHttpServletRequest("POST", "/withdraw");
+        post.setSession(session);
+        filter.doFilter(post, new MockHttpServletResponse(), (request, response) -> ((MockHttpServletResponse) response).setStatus(500));
+
+        assertThat(session.getAttribute(ReadYourWritesFilter.LAST_WRITE_ATTRIBUTE)).isEqualTo(earlier);
+    }
+
+    @Test
+    void windowExpires() throws Exception {
+        session.setAttribute(ReadYourWritesFilter.LAST_WRITE_ATTRIBUTE, System.currentTimeMillis() - 6_000);
+
+        assertThat(get()).isFalse();
+    }
+
+    /** Whether a GET in this session ran with the primary-only override. */
+    private boolean get() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/dashboard");
+        request.setSession(session);
+        AtomicBoolean primaryOnly = new AtomicBoolean();
+        FilterChain chain = (req, res) -> primaryOnly.set(ReplicaRouting.isPrimaryOnly());
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        return primaryOnly.get();
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.bankapp.datasource;
+
+import com.example.bankapp.model.Account;
+import com.example.bankapp.model.AccountSummary;
+import com.example.bankapp.service.AccountService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two in-memory H2 databases stand in for the primary and a replica. Nothing replicates
+ * between them: the replica only holds what the test copies there, so where a read was
+ * served is visible from what it returns.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-primary;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "bankapp.replica.enabled=true",
+        "bankapp.replica.urls[0]=jdbc:h2:mem:routing-replica;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "bankapp.replica.max-lag=300ms",
+        // Checks are driven by the tests
+        "bankapp.replica.lag-check-interval=PT1H"
+})
+class ReplicaRoutingTest {
+
+    private static final String REPLICA_ONLY = "only-on-replica";
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private ReplicaSet replicaSet;
+
+    @Autowired
+    private ReplicaLagMonitor lagMonitor;
+
+    private JdbcTemplate primary;
+    private JdbcTemplate replica;
+    private Account account;
+
+    @BeforeEach
+    void setUp() {
+        primary = new JdbcTemplate(replicaSet.getPrimary());
+        replica = new JdbcTemplate(replicaSet.getReplicas().get("replica-0"));
+        replica.execute("create table if not exists account "
+                + "(id bigint primary key, username varchar(255), password varchar(255), balance decimal(38,2))");
+        replica.execute("create table if not exists replica_heartbeat (instance_id varchar(64) primary key, beat_at bigint)");
+        replica.update("delete from account");
+        replica.update("delete from replica_heartbeat");
+        replica.update("insert into account (id, username, password, balance) values (?, ?, ?, ?)",
+                Long.MAX_VALUE, REPLICA_ONLY, "x", BigDecimal.ZERO);
+
+        // Only on the primary
+        account = accountService.registerAccount("routing-" + UUID.randomUUID(), "secret");
+        // No heartbeat on the replica, so its lag is unknown
+        lagMonitor.check();
+    }
+
+    @Test
+    void readsUseThePrimaryWhileReplicaLagIsUnknown() {
+        assertThat(replicaSet.nextHealthy()).isNull();
+        assertThat(accountService.getAccountById(account.getId())).isNotNull();
+        assertThat(summaryUsernames()).doesNotContain(REPLICA_ONLY);
+    }
+
+    @Test
+    void caughtUpReplicaServesReadOnlyTransactions() {
+        replicateHeartbeats();
+        lagMonitor.check();
+
+        assertThat(accountService.getAccountById(account.getId())).isNull();
+        assertThat(summaryUsernames()).contains(REPLICA_ONLY);
+    }
+
+    @Test
+    void mutationsAlwaysUseThePrimary() {
+        replicateHeartbeats();
+        lagMonitor.check();
+
+        accountService.deposit(account, BigDecimal.TEN);
+
+        assertThat(accountService.findAccountByUsername(account.getUsername()).getBalance()).isEqualByComparingTo("10");
+        assertThat(primary.queryForObject("select balance from account where id = ?", BigDecimal.class, account.getId()))
+                .isEqualByComparingTo("10");
+    }
+
+    @Test
+    void replicaFallingBehindIsTakenOutOfRotation() throws InterruptedException {
+        replicateHeartbeats();
+        lagMonitor.check();
+        assertThat(replicaSet.nextHealthy()).isEqualTo("replica-0");
+
+        // The replica keeps the previous beat while the primary moves on
+        Thread.sleep(400);
+        lagMonitor.check();
+
+        assertThat(replicaSet.nextHealthy()).isNull();
+        assertThat(accountService.getAccountById(account.getId())).isNotNull();
+    }
+
+    @Test
+    void primaryOnlyOverrideKeepsReadsOnThePrimary() {
+        replicateHeartbeats();
+        lagMonitor.check();
+
+        boolean previous = ReplicaRouting.bindPrimaryOnly(true);
+        try {
+            assertThat(accountService.getAccountById(account.getId())).isNotNull();
+            assertThat(summaryUsernames()).doesNotContain(REPLICA_ONLY);
+        } finally {
+            ReplicaRouting.bindPrimaryOnly(previous);
+        }
+    }
+
+    private Iterable<String> summaryUsernames() {
+        return accountService.getAccountSummaries(null, null, 200).getItems().stream()
+                .map(AccountSummary::getUsername)
+                .toList();
+    }
+
+    private void replicateHeartbeats() {
+        replica.update("delete from replica_heartbeat");
+        for (Map<String, Object> row : primary.queryForList("select instance_id, beat_at from replica_heartbeat")) {
+            replica.update("insert into replica_heartbeat (instance_id, beat_at) values (?, ?)",
+                    row.get("instance_id"), row.get("beat_at"));
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.bankapp.monitoring;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ProfilingDataSourceTest {
+
+    @Mock
+    private DataSource target;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private PreparedStatement statement;
+
+    @Mock
+    private ResultSet resultSet;
+
+    private DataSource dataSource;
+
+    @BeforeEach
+    void init() throws Exception {
+        MockitoAnnotations.openMocks(this);
+        when(target.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        when(statement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true, true, true, false);
+        dataSource = ProfilingDataSource.wrap(target);
+    }
+
+    private void runQueryAndUpdate() {
+        try (Connection c = dataSource.getConnection();
+             PreparedStatement query = c.prepareStatement("select 1")) {
+            ResultSet rows = query.executeQuery();
+            while (rows.next()) {
+                rows.getLong(1);
+            }
+            query.executeUpdate();
+            query.addBatch();
+            query.executeBatch();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Test
+    void countsStatementsAndRowsForTheBoundProfile() {
+        SqlProfile profile = SqlProfiler.profile(this::runQueryAndUpdate);
+
+        assertThat(profile.getStatements()).isEqualTo(3);
+        assertThat(profile.getRows()).isEqualTo(3);
+        assertThat(SqlProfiler.current()).isNull();
+    }
+
+    @Test
+    void onlyDelegatesWithoutProfile() throws Exception {
+        runQueryAndUpdate();
+
+        verify(statement).executeQuery();
+        verify(statement).executeBatch();
+        verify(resultSet, times(4)).next();
+    }
+
+    @Test
+    void wrapsOnlyOnceAndUnwrapsToThePool() throws Exception {
+        when(target.unwrap(DataSource.class)).thenReturn(target);
+
+        assertThat(ProfilingDataSource.wrap(dataSource)).isSameAs(dataSource);
+        assertThat(dataSource.unwrap(DataSource.class)).isSameAs(target);
+    }
+}
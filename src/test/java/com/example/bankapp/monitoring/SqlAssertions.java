@@ -0,0 +1,32 @@
+package com.example.bankapp.monitoring;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pins the number of SQL round trips a piece of code makes, so N+1 regressions fail a test
+ * instead of showing up in production. Needs the application's {@link ProfilingDataSource}.
+ * <pre>
+ * SqlAssertions.assertStatements(1, () -&gt; accountService.getTransactionPage(account, null, 50));
+ * </pre>
+ */
+public final class SqlAssertions {
+
+    private SqlAssertions() {
+    }
+
+    public static SqlProfile assertStatements(long expected, Runnable work) {
+        SqlProfile profile = SqlProfiler.profile(work);
+        assertThat(profile.getStatements())
+                .as("SQL statements executed (%s)", profile)
+                .isEqualTo(expected);
+        return profile;
+    }
+
+    public static SqlProfile assertAtMostStatements(long max, Runnable work) {
+        SqlProfile profile = SqlProfiler.profile(work);
+        assertThat(profile.getStatements())
+                .as("SQL statements executed (%s)", profile)
+                .isLessThanOrEqualTo(max);
+        return profile;
+    }
+}
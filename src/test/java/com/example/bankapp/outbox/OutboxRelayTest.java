@@ -0,0 +1,123 @@
+package com.example.bankapp.outbox;
+
+import com.example.bankapp.model.Account;
+import com.example.bankapp.model.OutboxEvent;
+import com.example.bankapp.repository.OutboxEventRepository;
+import com.example.bankapp.service.AccountService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:outbox;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "bankapp.outbox.sink=queue",
+        "bankapp.outbox.queue-capacity=3",
+        // Relay runs are driven by the tests
+        "bankapp.outbox.poll-interval=PT1H"
+})
+class OutboxRelayTest {
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private OutboxRelay relay;
+
+    @Autowired
+    private OutboxSink sink;
+
+    @Autowired
+    private OutboxEventRepository repository;
+
+    private Account alice;
+    private Account bob;
+
+    @BeforeEach
+    void setUp() {
+        relay.drain();
+        queue().clear();
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        alice = accountService.registerAccount("alice-" + suffix, "secret");
+        bob = accountService.registerAccount("bob-" + suffix, "secret");
+    }
+
+    @Test
+    void recordedTransactionsAreRelayedInOrderAndRemoved() {
+        accountService.deposit(alice, new BigDecimal("100.00"));
+        accountService.transferAmount(alice, bob.getUsername(), new BigDecimal("40.00"));
+
+        assertThat(repository.count()).isEqualTo(3);
+        assertThat(relay.drain()).isEqualTo(3);
+
+        List<OutboxEvent> delivered = new ArrayList<>(queue());
+        assertThat(delivered).extracting(OutboxEvent::getType)
+                .containsExactly("Deposit", "Transfer Out to " + bob.getUsername(), "Transfer In from " + alice.getUsername());
+        assertThat(delivered).extracting(OutboxEvent::getAccountId)
+                .containsExactly(alice.getId(), alice.getId(), bob.getId());
+        assertThat(delivered).allSatisfy(event -> assertThat(event.getTransactionId()).isNotNull());
+        assertThat(repository.count()).isZero();
+    }
+
+    @Test
+    void refusedBatchStaysInTheOutboxUntilTheSinkAcceptsIt() {
+        accountService.deposit(alice, new BigDecimal("10.00"));
+        accountService.deposit(bob, new BigDecimal("10.00"));
+        // Leave room for one event only, so the batch of two is refused
+        OutboxEvent filler = repository.findAll().get(0);
+        queue().add(filler);
+        queue().add(filler);
+
+        relay.relay();
+        assertThat(repository.count()).isEqualTo(2);
+
+        queue().clear();
+        assertThat(relay.drain()).isEqualTo(2);
+        assertThat(queue()).extracting(OutboxEvent::getAccountId).containsExactly(alice.getId(), bob.getId());
+        assertThat(repository.count()).isZero();
+    }
+
+    /**
+     * Pins the guarantee documented on {@link OutboxRelay}: events go out by recording time,
+     * which for separate transactions is not the order they committed in.
+     */
+    @Test
+    void deliveryFollowsRecordingTimeNotCommitOrder() {
+        LocalDateTime now = LocalDateTime.now();
+        // Committed first, but stamped later than the next one, e.g. by an instance whose clock runs ahead
+        repository.save(event(1L, now));
+        repository.save(event(2L, now.minusSeconds(1)));
+
+        assertThat(relay.drain()).isEqualTo(2);
+        assertThat(queue()).extracting(OutboxEvent::getTransactionId).containsExactly(2L, 1L);
+
+        // Stamped earliest of all, but committed after the others were delivered
+        queue().clear();
+        repository.save(event(3L, now.minusSeconds(2)));
+
+        assertThat(relay.drain()).isEqualTo(1);
+        assertThat(queue()).extracting(OutboxEvent::getTransactionId).containsExactly(3L);
+    }
+
+    private OutboxEvent event(long transactionId, LocalDateTime createdAt) {
+        return new OutboxEvent(alice.getId(), transactionId, "Deposit", BigDecimal.ONE, createdAt, createdAt);
+    }
+
+    private BlockingQueue<OutboxEvent> queue() {
+        return ((QueueOutboxSink) sink).getQueue();
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.bankapp.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.UnexpectedRollbackException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class AccountMutationLanesTest {
+
+    private static final Long ACCOUNT_ID = 7L;
+    private static final int WAITING = 5;
+
+    private PlatformTransactionManager transactionManager;
+    private AccountMutationLanes lanes;
+    private ExecutorService callers;
+
+    @BeforeEach
+    void setUp() {
+        transactionManager = mock(PlatformTransactionManager.class);
+        lanes = new AccountMutationLanes(1, new TransactionTemplate(transactionManager), new SimpleMeterRegistry());
+        callers = Executors.newCachedThreadPool();
+    }
+
+    @AfterEach
+    void tearDown() {
+        lanes.close();
+        callers.shutdownNow();
+    }
+
+    @Test
+    void queuedMutationsForTheSameAccountShareOneCommit() throws Exception {
+        AtomicInteger applied = new AtomicInteger();
+        List<CompletableFuture<Integer>> results = queueBehindBlockedLane(applied::incrementAndGet);
+
+        for (CompletableFuture<Integer> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isPositive();
+        }
+        assertThat(applied.get()).isEqualTo(WAITING);
+        verify(transactionManager, times(1)).commit(any());
+    }
+
+    @Test
+    void failingMutationDoesNotFailItsBatch() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        List<CompletableFuture<Integer>> results = queueBehindBlockedLane(() -> {
+            int call = calls.incrementAndGet();
+            if (call == 3) {
+                throw new InsufficientFundsException("Insufficient funds");
+            }
+            return call;
+        });
+
+        int failed = 0;
+        for (CompletableFuture<Integer> result : results) {
+            try {
+                result.get(5, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                assertThat(e).hasCauseInstanceOf(InsufficientFundsException.class);
+                failed++;
+            }
+        }
+        assertThat(failed).isEqualTo(1);
+        verify(transactionManager, times(1)).commit(any());
+    }
+
+    @Test
+    void rolledBackBatchIsReplayedOneMutationAtATime() throws Exception {
+        doThrow(new UnexpectedRollbackException("rollback-only"))
+                .doNothing()
+                .when(transactionManager).commit(any());
+        AtomicInteger attempts = new AtomicInteger();
+
+        List<CompletableFuture<Integer>> results = queueBehindBlockedLane(attempts::incrementAndGet);
+
+        for (CompletableFuture<Integer> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isPositive();
+        }
+        assertThat(attempts.get()).isEqualTo(WAITING * 2);
+        verify(transactionManager, times(1 + WAITING)).commit(any());
+    }
+
+    @Test
+    void dataAccessFailureRollsBackAndReplaysTheWholeBatch() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        List<CompletableFuture<Integer>> results = queueBehindBlockedLane(() -> {
+            int call = calls.incrementAndGet();
+            if (call == 3) {
+                throw new CannotAcquireLockException("Deadlock found when trying to get lock");
+            }
+            return call;
+        });
+
+        for (CompletableFuture<Integer> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isPositive();
+        }
+        // The two mutations before the failure are not committed with the shared transaction
+        verify(transactionManager, times(1)).rollback(any());
+        verify(transactionManager, times(WAITING)).commit(any());
+        assertThat(calls.get()).isEqualTo(3 + WAITING);
+    }
+
+    @Test
+    void exclusiveMutationRunsWithoutLaneTransaction() {
+        Integer result = lanes.executeAlone(ACCOUNT_ID, () -> 42);
+
+        assertThat(result).isEqualTo(42);
+        verifyNoInteractions(transactionManager);
+    }
+
+    @Test
+    void closedLanesRejectMutations() {
+        lanes.close();
+
+        assertThatThrownBy(() -> lanes.execute(ACCOUNT_ID, () -> 1))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    /**
+     * Parks the single lane on an exclusive mutation, queues {@link #WAITING} coalescable
+     * mutations behind it and then releases the lane.
+     */
+    private List<CompletableFuture<Integer>> queueBehindBlockedLane(Supplier<Integer> operation)
+            throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture.runAsync(() -> lanes.executeAlone(ACCOUNT_ID, () -> {
+            started.countDown();
+            await(release);
+            return null;
+        }), callers);
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        List<CompletableFuture<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < WAITING; i++) {
+            results.add(CompletableFuture.supplyAsync(() -> lanes.execute(ACCOUNT_ID, operation), callers));
+        }
+        waitUntil(() -> lanes.queued() == WAITING);
+        release.countDown();
+        return results;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(5);
+        }
+    }
+}
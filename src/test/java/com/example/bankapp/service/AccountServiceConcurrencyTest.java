@@ -0,0 +1,107 @@
+package com.example.bankapp.service;
+
+import com.example.bankapp.model.Account;
+import com.example.bankapp.repository.AccountRepository;
+import com.example.bankapp.repository.TransactionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class AccountServiceConcurrencyTest {
+
+    private static final int OPERATIONS = 400;
+    private static final int THREADS = 32;
+    private static final BigDecimal OPENING_BALANCE = BigDecimal.valueOf(100);
+    private static final BigDecimal DEPOSIT = BigDecimal.valueOf(10);
+    private static final BigDecimal WITHDRAWAL = BigDecimal.valueOf(15);
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    private Long accountId;
+
+    @BeforeEach
+    void createAccount() {
+        Account account = new Account();
+        account.setUsername("concurrency-" + System.nanoTime());
+        account.setPassword("secret");
+        account.setBalance(OPENING_BALANCE);
+        accountId = accountRepository.save(account).getId();
+    }
+
+    @AfterEach
+    void deleteAccount() {
+        transactionRepository.deleteAll(transactionRepository.findByAccountId(accountId));
+        accountRepository.deleteById(accountId);
+    }
+
+    @Test
+    void parallelDepositsAndWithdrawalsConserveBalance() throws Exception {
+        AtomicInteger deposits = new AtomicInteger();
+        AtomicInteger withdrawals = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int i = 0; i < OPERATIONS; i++) {
+            boolean deposit = i % 2 == 0;
+            tasks.add(() -> {
+                // Each caller holds its own stale copy, exactly like concurrent web requests
+                Account view = new Account();
+                view.setId(accountId);
+                view.setBalance(BigDecimal.ZERO);
+                if (deposit) {
+                    accountService.deposit(view, DEPOSIT);
+                    deposits.incrementAndGet();
+                } else {
+                    try {
+                        accountService.withdraw(view, WITHDRAWAL);
+                        withdrawals.incrementAndGet();
+                    } catch (InsufficientFundsException e) {
+                        rejected.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (Future<Void> future : pool.invokeAll(tasks)) {
+                future.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        BigDecimal expected = OPENING_BALANCE
+                .add(DEPOSIT.multiply(BigDecimal.valueOf(deposits.get())))
+                .subtract(WITHDRAWAL.multiply(BigDecimal.valueOf(withdrawals.get())));
+        BigDecimal actual = accountRepository.findById(accountId).orElseThrow().getBalance();
+
+        assertThat(deposits.get() + withdrawals.get() + rejected.get()).isEqualTo(OPERATIONS);
+        assertThat(actual).isEqualByComparingTo(expected);
+        assertThat(actual).isGreaterThanOrEqualTo(BigDecimal.ZERO);
+        assertThat(transactionRepository.findByAccountId(accountId))
+                .hasSize(deposits.get() + withdrawals.get());
+    }
+}
@@ -1,17 +1,35 @@
 package com.example.bankapp.service;
 
 import com.example.bankapp.model.Account;
+import com.example.bankapp.model.AccountPrincipal;
+import com.example.bankapp.model.AccountSummary;
+import com.example.bankapp.model.IdempotencyRecord;
+import com.example.bankapp.model.StatementLine;
 import com.example.bankapp.model.Transaction;
+import com.example.bankapp.outbox.TransactionOutbox;
 import com.example.bankapp.repository.AccountRepository;
+import com.example.bankapp.repository.IdempotencyRecordRepository;
+import com.example.bankapp.repository.OutboxEventRepository;
 import com.example.bankapp.repository.TransactionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.*;
 
 import static org.assertj.core.api.Assertions.*;
@@ -28,12 +46,38 @@ class AccountServiceTest {
     @Mock
     private TransactionRepository transactionRepository;
 
-    @InjectMocks
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private AccountVersions accountVersions;
+
+    private SimpleMeterRegistry meterRegistry;
+
     private AccountService accountService;
 
     @BeforeEach
     void init() {
         MockitoAnnotations.openMocks(this);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        meterRegistry = new SimpleMeterRegistry();
+        accountService = new AccountService(passwordEncoder, accountRepository, transactionRepository,
+                transactionManager, meterRegistry, new PrincipalCache(100, Duration.ofMinutes(5), meterRegistry),
+                new IdempotencyStore(idempotencyRecordRepository, 100, Duration.ofHours(24), meterRegistry),
+                new AccountRowBalanceModel(accountRepository, transactionRepository,
+                        new TransactionOutbox(outboxEventRepository, true), meterRegistry),
+                accountVersions);
+    }
+
+    @AfterEach
+    void shutdown() {
+        accountService.shutdown();
     }
 
     // ---------- findAccountByUsername ----------
@@ -99,40 +143,157 @@ class AccountServiceTest {
     @Test
     void testDeposit() {
         Account acc = new Account();
+        acc.setId(1L);
         acc.setBalance(BigDecimal.valueOf(100));
+        when(accountRepository.incrementBalance(1L, BigDecimal.valueOf(50))).thenReturn(1);
 
         accountService.deposit(acc, BigDecimal.valueOf(50));
 
         assertThat(acc.getBalance()).isEqualTo(BigDecimal.valueOf(150));
-        verify(accountRepository).save(acc);
+        verify(accountRepository).incrementBalance(1L, BigDecimal.valueOf(50));
+        verify(accountRepository, never()).save(any());
         verify(transactionRepository).save(any(Transaction.class));
+        verify(accountVersions).bump(1L);
+    }
+
+    @Test
+    void testDeposit_AccountNotFound() {
+        Account acc = account(1L, 100);
+        when(accountRepository.incrementBalance(1L, BigDecimal.valueOf(50))).thenReturn(0);
+
+        BigDecimal depositAmount = BigDecimal.valueOf(50);
+        assertThatThrownBy(() -> accountService.deposit(acc, depositAmount))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessage("Account not found");
+
+        verify(transactionRepository, never()).save(any());
+    }
+
+    @Test
+    void testDeposit_RejectsNonPositiveAmount() {
+        Account acc = account(1L, 100);
+
+        assertThatThrownBy(() -> accountService.deposit(acc, BigDecimal.ZERO))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Amount must be positive");
+        assertThatThrownBy(() -> accountService.deposit(acc, null))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(acc.getBalance()).isEqualTo(BigDecimal.valueOf(100));
+        verify(accountRepository, never()).incrementBalance(any(), any());
+    }
+
+    @Test
+    void testDeposit_RepeatedKeyIsAppliedOnce() {
+        Account acc = account(1L, 100);
+        when(accountRepository.incrementBalance(1L, BigDecimal.valueOf(50))).thenReturn(1);
+        when(idempotencyRecordRepository.findById("1:key-1")).thenReturn(Optional.empty());
+
+        MutationReceipt first = accountService.deposit(acc, BigDecimal.valueOf(50), "key-1");
+        MutationReceipt replay = accountService.deposit(acc, new BigDecimal("50.00"), "key-1");
+
+        assertThat(first.isReplayed()).isFalse();
+        assertThat(replay.isReplayed()).isTrue();
+        assertThat(acc.getBalance()).isEqualTo(BigDecimal.valueOf(150));
+        verify(accountRepository, times(1)).incrementBalance(any(), any());
+        verify(idempotencyRecordRepository, times(1)).save(any(IdempotencyRecord.class));
+        verify(accountVersions, times(1)).bump(1L);
+        // The second request was answered from memory
+        verify(idempotencyRecordRepository, times(1)).findById(any());
+    }
+
+    @Test
+    void testDeposit_KeyRecordedByAnotherInstanceIsReplayed() {
+        Account acc = account(1L, 100);
+        when(idempotencyRecordRepository.findById("1:key-2"))
+                .thenReturn(Optional.of(new IdempotencyRecord("1:key-2", "deposit|50", 77L, LocalDateTime.now())));
+
+        MutationReceipt receipt = accountService.deposit(acc, BigDecimal.valueOf(50), "key-2");
+
+        assertThat(receipt.isReplayed()).isTrue();
+        assertThat(receipt.getTransactionId()).isEqualTo(77L);
+        assertThat(acc.getBalance()).isEqualTo(BigDecimal.valueOf(100));
+        verify(accountRepository, never()).incrementBalance(any(), any());
+    }
+
+    @Test
+    void testWithdraw_KeyReusedForDifferentRequest() {
+        Account acc = account(1L, 100);
+        when(idempotencyRecordRepository.findById("1:key-3"))
+                .thenReturn(Optional.of(new IdempotencyRecord("1:key-3", "deposit|50", 77L, LocalDateTime.now())));
+
+        BigDecimal amount = BigDecimal.valueOf(50);
+        assertThatThrownBy(() -> accountService.withdraw(acc, amount, "key-3"))
+                .isInstanceOf(IdempotencyKeyReuseException.class);
+        verify(accountRepository, never()).decrementBalanceIfSufficient(any(), any());
     }
 
     // ---------- withdraw ----------
     @Test
     void testWithdraw_Success() {
         Account acc = new Account();
+        acc.setId(1L);
         acc.setBalance(BigDecimal.valueOf(200));
+        when(accountRepository.decrementBalanceIfSufficient(1L, BigDecimal.valueOf(50))).thenReturn(1);
 
         accountService.withdraw(acc, BigDecimal.valueOf(50));
 
         assertThat(acc.getBalance()).isEqualTo(BigDecimal.valueOf(150));
-        verify(accountRepository).save(acc);
+        verify(accountRepository).decrementBalanceIfSufficient(1L, BigDecimal.valueOf(50));
+        verify(accountRepository, never()).save(any());
         verify(transactionRepository).save(any(Transaction.class));
     }
 
     @Test
     void testWithdraw_InsufficientFunds() {
         Account acc = new Account();
+        acc.setId(1L);
         acc.setBalance(BigDecimal.valueOf(10));
+        when(accountRepository.decrementBalanceIfSufficient(1L, BigDecimal.valueOf(50))).thenReturn(0);
 
         BigDecimal withdrawAmount = BigDecimal.valueOf(50);
         assertThatThrownBy(() -> accountService.withdraw(acc, withdrawAmount))
                 .isInstanceOf(InsufficientFundsException.class)
                 .hasMessage("Insufficient funds");
 
+        assertThat(acc.getBalance()).isEqualTo(BigDecimal.valueOf(10));
         verify(accountRepository, never()).save(any());
         verify(transactionRepository, never()).save(any());
+        verify(accountVersions, never()).bump(anyLong());
+    }
+
+    @Test
+    void testWithdraw_RejectsNegativeAmount() {
+        Account acc = account(1L, 100);
+
+        BigDecimal negative = BigDecimal.valueOf(-50);
+        assertThatThrownBy(() -> accountService.withdraw(acc, negative))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Amount must be positive");
+
+        assertThat(acc.getBalance()).isEqualTo(BigDecimal.valueOf(100));
+        verify(accountRepository, never()).decrementBalanceIfSufficient(any(), any());
+    }
+
+    @Test
+    void testWithdraw_InsufficientFundsIsMetered() {
+        Account acc = account(1L, 10);
+        when(accountRepository.decrementBalanceIfSufficient(1L, BigDecimal.valueOf(50))).thenReturn(0);
+        when(accountRepository.decrementBalanceIfSufficient(1L, BigDecimal.valueOf(5))).thenReturn(1);
+
+        BigDecimal withdrawAmount = BigDecimal.valueOf(50);
+        assertThatThrownBy(() -> accountService.withdraw(acc, withdrawAmount))
+                .isInstanceOf(InsufficientFundsException.class);
+        accountService.withdraw(acc, BigDecimal.valueOf(5));
+
+        assertThat(meterRegistry.get("bankapp.account.insufficient.funds").tag("operation", "withdraw").counter().count())
+                .isEqualTo(1.0);
+        assertThat(meterRegistry.get("bankapp.account.operation").tag("operation", "withdraw")
+                .tag("outcome", "insufficient_funds").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("bankapp.account.operation").tag("operation", "withdraw")
+                .tag("outcome", "success").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("bankapp.account.amount").tag("operation", "withdraw").summary().totalAmount())
+                .isEqualTo(5.0);
     }
 
     // ---------- getTransactionHistory ----------
@@ -148,75 +309,246 @@ class AccountServiceTest {
         assertThat(result).hasSize(2);
     }
 
+    // ---------- getTransactionPage ----------
+    @Test
+    void testGetTransactionPage_FirstPageHasCursor() {
+        Account acc = account(1L, 0);
+        LocalDateTime now = LocalDateTime.of(2024, 1, 1, 12, 0);
+        List<Transaction> rows = Arrays.asList(transaction(3, now), transaction(2, now), transaction(1, now.minusMinutes(1)));
+        when(transactionRepository.findLatestByAccountId(1L, PageRequest.of(0, 3))).thenReturn(rows);
+
+        CursorPage<Transaction> page = accountService.getTransactionPage(acc, null, 2);
+
+        assertThat(page.getItems()).extracting(Transaction::getId).containsExactly(3L, 2L);
+        assertThat(page.hasNext()).isTrue();
+    }
+
+    @Test
+    void testGetTransactionPage_ContinuesAfterCursor() {
+        Account acc = account(1L, 0);
+        LocalDateTime now = LocalDateTime.of(2024, 1, 1, 12, 0);
+        when(transactionRepository.findLatestByAccountId(1L, PageRequest.of(0, 2)))
+                .thenReturn(Arrays.asList(transaction(3, now), transaction(2, now)));
+        when(transactionRepository.findByAccountIdBefore(1L, now, 3L, PageRequest.of(0, 2)))
+                .thenReturn(List.of(transaction(2, now)));
+
+        String cursor = accountService.getTransactionPage(acc, null, 1).getNextCursor();
+        CursorPage<Transaction> next = accountService.getTransactionPage(acc, cursor, 1);
+
+        assertThat(next.getItems()).extracting(Transaction::getId).containsExactly(2L);
+        assertThat(next.hasNext()).isFalse();
+    }
+
+    @Test
+    void testGetTransactionPage_RejectsForeignCursor() {
+        Account acc = account(1L, 0);
+
+        assertThatThrownBy(() -> accountService.getTransactionPage(acc, "not-a-cursor", 10))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    // ---------- getHistoryLines ----------
+    @Test
+    void testGetHistoryLines_ContinuesAfterEntityPageCursor() {
+        Account acc = account(1L, 0);
+        LocalDateTime now = LocalDateTime.of(2024, 1, 1, 12, 0);
+        when(transactionRepository.findLatestByAccountId(1L, PageRequest.of(0, 2)))
+                .thenReturn(Arrays.asList(transaction(3, now), transaction(2, now)));
+        when(transactionRepository.findLinesByAccountIdBefore(1L, now, 3L, PageRequest.of(0, 2)))
+                .thenReturn(List.of(new StatementLine(2L, now, "Deposit", BigDecimal.ONE),
+                        new StatementLine(1L, now.minusMinutes(1), "Deposit", BigDecimal.ONE)));
+
+        String cursor = accountService.getTransactionPage(acc, null, 1).getNextCursor();
+        CursorPage<StatementLine> next = accountService.getHistoryLines(1L, cursor, 1);
+
+        assertThat(next.getItems()).extracting(StatementLine::id).containsExactly(2L);
+        assertThat(next.hasNext()).isTrue();
+
+        accountService.getHistoryLines(1L, next.getNextCursor(), 1);
+        verify(transactionRepository).findLinesByAccountIdBefore(1L, now, 2L, PageRequest.of(0, 2));
+    }
+
     // ---------- loadUserByUsername ----------
     @Test
     void testLoadUserByUsername_Success() {
-        Account acc = new Account();
-        acc.setUsername("userX");
-        acc.setPassword("pass");
-        acc.setBalance(BigDecimal.ZERO);
-
-        when(accountRepository.findByUsername("userX")).thenReturn(Optional.of(acc));
+        when(accountRepository.findPrincipalByUsername("userX"))
+                .thenReturn(Optional.of(new AccountPrincipal(1L, "userX", "pass")));
 
         UserDetails ud = accountService.loadUserByUsername("userX");
 
         assertThat(ud.getUsername()).isEqualTo("userX");
+        assertThat(ud.getPassword()).isEqualTo("pass");
         assertThat(ud.getAuthorities()).extracting("authority").contains("USER");
+        verify(accountRepository, never()).findByUsername(any());
     }
 
     @Test
     void testLoadUserByUsername_NotFound() {
-        when(accountRepository.findByUsername("missing")).thenReturn(Optional.empty());
+        when(accountRepository.findPrincipalByUsername("missing")).thenReturn(Optional.empty());
 
         String username = "missing";
         assertThatThrownBy(() -> accountService.loadUserByUsername(username))
-                .isInstanceOf(RuntimeException.class)
-                .hasMessage("Account not found");
+                .isInstanceOf(UsernameNotFoundException.class);
+    }
+
+    @Test
+    void testLoadUserByUsername_ServedFromCache() {
+        when(accountRepository.findPrincipalByUsername("userX"))
+                .thenReturn(Optional.of(new AccountPrincipal(1L, "userX", "pass")));
+
+        accountService.loadUserByUsername("userX");
+        accountService.loadUserByUsername("userX");
+
+        verify(accountRepository, times(1)).findPrincipalByUsername("userX");
+    }
+
+    @Test
+    void testLoadUserByUsername_ReloadedAfterUpdate() {
+        when(accountRepository.findPrincipalByUsername("userX"))
+                .thenReturn(Optional.of(new AccountPrincipal(1L, "userX", "old")))
+                .thenReturn(Optional.of(new AccountPrincipal(1L, "userX", "new")));
+        Account existing = new Account();
+        existing.setUsername("userX");
+        Account updated = new Account();
+        updated.setUsername("userX");
+        updated.setPassword("new");
+        when(accountRepository.findById(1L)).thenReturn(Optional.of(existing));
+        when(accountRepository.saveAndFlush(any(Account.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        accountService.loadUserByUsername("userX");
+        accountService.updateAccount(1L, updated);
+
+        assertThat(accountService.loadUserByUsername("userX").getPassword()).isEqualTo("new");
+    }
+
+    @Test
+    void testLoadUserByUsername_UpdateEvictsAfterCommit() {
+        when(accountRepository.findPrincipalByUsername("userX"))
+                .thenReturn(Optional.of(new AccountPrincipal(1L, "userX", "old")))
+                .thenReturn(Optional.of(new AccountPrincipal(1L, "userX", "new")));
+        Account existing = new Account();
+        existing.setUsername("userX");
+        Account updated = new Account();
+        updated.setUsername("userX");
+        updated.setPassword("new");
+        when(accountRepository.findById(1L)).thenReturn(Optional.of(existing));
+        when(accountRepository.saveAndFlush(any(Account.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        accountService.loadUserByUsername("userX");
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            accountService.updateAccount(1L, updated);
+            // Until the commit a login could only reload the old row, so the cached one stays
+            assertThat(accountService.loadUserByUsername("userX").getPassword()).isEqualTo("old");
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(accountService.loadUserByUsername("userX").getPassword()).isEqualTo("new");
+    }
+
+    @Test
+    void testLoadUserByUsername_EvictedOnDelete() {
+        when(accountRepository.findPrincipalByUsername("userX"))
+                .thenReturn(Optional.of(new AccountPrincipal(7L, "userX", "pass")))
+                .thenReturn(Optional.empty());
+
+        accountService.loadUserByUsername("userX");
+        accountService.deleteAccount(7L);
+
+        assertThatThrownBy(() -> accountService.loadUserByUsername("userX"))
+                .isInstanceOf(UsernameNotFoundException.class);
+    }
+
+    @Test
+    void testLoadUserByUsername_DeleteEvictsAfterCommit() {
+        when(accountRepository.findPrincipalByUsername("userX"))
+                .thenReturn(Optional.of(new AccountPrincipal(7L, "userX", "pass")))
+                .thenReturn(Optional.empty());
+        when(accountRepository.findById(7L)).thenReturn(Optional.of(account(7L, "userX", 0)));
+
+        accountService.loadUserByUsername("userX");
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            accountService.deleteAccount(7L);
+            assertThat(accountService.loadUserByUsername("userX").getUsername()).isEqualTo("userX");
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThatThrownBy(() -> accountService.loadUserByUsername("userX"))
+                .isInstanceOf(UsernameNotFoundException.class);
+    }
+
+    @Test
+    void testUpdatePassword_StoresUpgradedHashAndEvicts() {
+        when(accountRepository.findPrincipalByUsername("userX"))
+                .thenReturn(Optional.of(new AccountPrincipal(1L, "userX", "old")))
+                .thenReturn(Optional.of(new AccountPrincipal(1L, "userX", "{bcrypt}new")));
+        UserDetails loaded = accountService.loadUserByUsername("userX");
+
+        UserDetails upgraded = accountService.updatePassword(loaded, "{bcrypt}new");
+
+        verify(accountRepository).updatePassword("userX", "{bcrypt}new");
+        assertThat(upgraded.getPassword()).isEqualTo("{bcrypt}new");
+        assertThat(accountService.loadUserByUsername("userX").getPassword()).isEqualTo("{bcrypt}new");
     }
 
     // ---------- transferAmount ----------
     @Test
     void testTransferAmount_Success() {
-        Account from = new Account();
-        from.setUsername("from");
-        from.setBalance(BigDecimal.valueOf(500));
-
-        Account to = new Account();
-        to.setUsername("to");
-        to.setBalance(BigDecimal.valueOf(200));
+        Account from = account(2L, "from", 500);
+        Account lockedFrom = account(2L, "from", 500);
+        Account to = account(1L, "to", 200);
 
-        when(accountRepository.findByUsername("to")).thenReturn(Optional.of(to));
+        when(accountRepository.findIdByUsername("to")).thenReturn(Optional.of(1L));
+        when(accountRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(to));
+        when(accountRepository.findByIdForUpdate(2L)).thenReturn(Optional.of(lockedFrom));
 
         BigDecimal transferAmount = BigDecimal.valueOf(100);
         accountService.transferAmount(from, "to", transferAmount);
 
-        assertThat(from.getBalance()).isEqualTo(BigDecimal.valueOf(400));
+        assertThat(lockedFrom.getBalance()).isEqualTo(BigDecimal.valueOf(400));
         assertThat(to.getBalance()).isEqualTo(BigDecimal.valueOf(300));
+        assertThat(from.getBalance()).isEqualTo(BigDecimal.valueOf(400));
 
-        verify(accountRepository, times(2)).save(any(Account.class));
+        // Lower id is locked first regardless of transfer direction
+        InOrder locks = inOrder(accountRepository);
+        locks.verify(accountRepository).findByIdForUpdate(1L);
+        locks.verify(accountRepository).findByIdForUpdate(2L);
         verify(transactionRepository, times(2)).save(any(Transaction.class));
+        verify(accountVersions).bump(List.of(2L, 1L));
+        verify(transactionManager).commit(any());
     }
 
     @Test
     void testTransferAmount_InsufficientFunds() {
-        Account from = new Account();
-        from.setBalance(BigDecimal.valueOf(50));
+        Account from = account(1L, "from", 500);
+        Account lockedFrom = account(1L, "from", 50);
+        Account to = account(2L, "toUser", 0);
+
+        when(accountRepository.findIdByUsername("toUser")).thenReturn(Optional.of(2L));
+        when(accountRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(lockedFrom));
+        when(accountRepository.findByIdForUpdate(2L)).thenReturn(Optional.of(to));
 
+        // The stale copy claims 500, but the locked row decides
         BigDecimal transferAmount = BigDecimal.valueOf(100);
         assertThatThrownBy(() -> accountService.transferAmount(from, "toUser", transferAmount))
                 .isInstanceOf(InsufficientFundsException.class)
                 .hasMessage("Insufficient funds");
 
-        verify(accountRepository, never()).save(any());
+        assertThat(lockedFrom.getBalance()).isEqualTo(BigDecimal.valueOf(50));
+        verify(transactionRepository, never()).save(any());
+        verify(transactionManager).rollback(any());
     }
 
     @Test
     void testTransferAmount_RecipientNotFound() {
-        Account from = new Account();
-        from.setUsername("from");
-        from.setBalance(BigDecimal.valueOf(500));
+        Account from = account(1L, "from", 500);
 
-        when(accountRepository.findByUsername("missing")).thenReturn(Optional.empty());
+        when(accountRepository.findIdByUsername("missing")).thenReturn(Optional.empty());
 
         BigDecimal transferAmount = BigDecimal.valueOf(100);
         assertThatThrownBy(() -> accountService.transferAmount(from, "missing", transferAmount))
@@ -224,6 +556,69 @@ class AccountServiceTest {
                 .hasMessage("Recipient account not found");
     }
 
+    @Test
+    void testTransferAmount_RejectsNonPositiveAmount() {
+        Account from = account(1L, "from", 500);
+
+        BigDecimal negative = BigDecimal.valueOf(-100);
+        assertThatThrownBy(() -> accountService.transferAmount(from, "to", negative))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Amount must be positive");
+
+        verify(accountRepository, never()).findIdByUsername(any());
+        verifyNoInteractions(transactionManager);
+    }
+
+    @Test
+    void testTransferAmount_ToSelfIsRejected() {
+        Account from = account(1L, "from", 500);
+
+        BigDecimal transferAmount = BigDecimal.valueOf(100);
+        assertThatThrownBy(() -> accountService.transferAmount(from, "from", transferAmount))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Cannot transfer to the same account");
+
+        assertThat(from.getBalance()).isEqualTo(BigDecimal.valueOf(500));
+        verify(accountRepository, never()).findIdByUsername(any());
+        verifyNoInteractions(transactionManager);
+    }
+
+    @Test
+    void testTransferAmount_RetriesAfterLockFailure() {
+        Account from = account(1L, "from", 500);
+        Account lockedFrom = account(1L, "from", 500);
+        Account to = account(2L, "to", 0);
+
+        when(accountRepository.findIdByUsername("to")).thenReturn(Optional.of(2L));
+        when(accountRepository.findByIdForUpdate(1L))
+                .thenThrow(new CannotAcquireLockException("Deadlock found when trying to get lock"))
+                .thenReturn(Optional.of(lockedFrom));
+        when(accountRepository.findByIdForUpdate(2L)).thenReturn(Optional.of(to));
+
+        accountService.transferAmount(from, "to", BigDecimal.valueOf(100));
+
+        assertThat(from.getBalance()).isEqualTo(BigDecimal.valueOf(400));
+        assertThat(to.getBalance()).isEqualTo(BigDecimal.valueOf(100));
+        assertThat(meterRegistry.get("bankapp.transfer.retries").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void testTransferAmount_GivesUpAfterMaxAttempts() {
+        Account from = account(1L, "from", 500);
+        Account to = account(2L, "to", 0);
+
+        when(accountRepository.findIdByUsername("to")).thenReturn(Optional.of(2L));
+        when(accountRepository.findByIdForUpdate(1L))
+                .thenThrow(new CannotAcquireLockException("Lock wait timeout exceeded"));
+
+        BigDecimal transferAmount = BigDecimal.valueOf(100);
+        assertThatThrownBy(() -> accountService.transferAmount(from, "to", transferAmount))
+                .isInstanceOf(CannotAcquireLockException.class);
+
+        verify(accountRepository, times(3)).findByIdForUpdate(1L);
+        verify(transactionRepository, never()).save(any());
+    }
+
     // ---------- getAllAccounts ----------
     @Test
     void testGetAllAccounts() {
@@ -233,6 +628,28 @@ class AccountServiceTest {
         assertThat(result).hasSize(1);
     }
 
+    // ---------- getAccountSummaries ----------
+    @Test
+    void testGetAccountSummaries_NextCursorIsLastIdOfFullPage() {
+        List<AccountSummary> rows = List.of(summary(3L), summary(5L), summary(8L));
+        when(accountRepository.findSummariesAfter(0L, PageRequest.of(0, 3))).thenReturn(rows);
+
+        CursorPage<AccountSummary> page = accountService.getAccountSummaries(null, null, 2);
+
+        assertThat(page.getItems()).hasSize(2);
+        assertThat(page.getNextCursor()).isEqualTo("5");
+    }
+
+    @Test
+    void testGetAccountSummaries_EscapesPrefixWildcards() {
+        when(accountRepository.findSummariesByUsernameLikeAfter(anyString(), anyLong(), any())).thenReturn(List.of());
+
+        CursorPage<AccountSummary> page = accountService.getAccountSummaries("50%_off!", 12L, 10);
+
+        verify(accountRepository).findSummariesByUsernameLikeAfter("50!%!_off!!%", 12L, PageRequest.of(0, 11));
+        assertThat(page.hasNext()).isFalse();
+    }
+
     // ---------- saveAccount ----------
     @Test
     void testSaveAccount() {
@@ -255,13 +672,16 @@ class AccountServiceTest {
         updated.setBalance(BigDecimal.valueOf(500));
 
         when(accountRepository.findById(1L)).thenReturn(Optional.of(existing));
-        when(accountRepository.save(any(Account.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(accountRepository.saveAndFlush(any(Account.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         Account result = accountService.updateAccount(1L, updated);
 
         assertThat(result.getUsername()).isEqualTo("newUser");
         assertThat(result.getPassword()).isEqualTo("newPass");
         assertThat(result.getBalance()).isEqualTo(BigDecimal.valueOf(500));
+        InOrder order = inOrder(accountRepository, accountVersions);
+        order.verify(accountRepository).saveAndFlush(existing);
+        order.verify(accountVersions).bump(1L);
     }
 
     @Test
@@ -275,8 +695,26 @@ class AccountServiceTest {
     // ---------- deleteAccount ----------
     @Test
     void testDeleteAccount() {
+        Account acc = new Account();
+        acc.setId(5L);
+        when(accountRepository.findById(5L)).thenReturn(Optional.of(acc));
+
+        accountService.deleteAccount(5L);
+
+        InOrder order = inOrder(accountRepository, accountVersions);
+        order.verify(accountRepository).delete(acc);
+        order.verify(accountRepository).flush();
+        order.verify(accountVersions).bump(5L);
+    }
+
+    @Test
+    void testDeleteAccount_MissingAccountLeavesNoVersionRow() {
+        when(accountRepository.findById(5L)).thenReturn(Optional.empty());
+
         accountService.deleteAccount(5L);
-        verify(accountRepository).deleteById(5L);
+
+        verify(accountRepository, never()).delete(any());
+        verify(accountVersions, never()).bump(anyLong());
     }
 
     // ---------- getAccountById ----------
@@ -296,4 +734,29 @@ class AccountServiceTest {
         Account result = accountService.getAccountById(10L);
         assertThat(result).isNull();
     }
+
+    // ---------- fixtures ----------
+    private static Account account(Long id, long balance) {
+        return account(id, null, balance);
+    }
+
+    private static Account account(Long id, String username, long balance) {
+        Account acc = new Account();
+        acc.setId(id);
+        acc.setUsername(username);
+        acc.setBalance(BigDecimal.valueOf(balance));
+        return acc;
+    }
+
+    private static Transaction transaction(long id, LocalDateTime timestamp) {
+        Transaction transaction = new Transaction(BigDecimal.ONE, "Deposit", timestamp, null);
+        transaction.setId(id);
+        return transaction;
+    }
+
+    private static AccountSummary summary(long id) {
+        AccountSummary summary = mock(AccountSummary.class);
+        when(summary.getId()).thenReturn(id);
+        return summary;
+    }
 }
@@ -0,0 +1,116 @@
+package com.example.bankapp.service;
+
+import com.example.bankapp.model.Account;
+import com.example.bankapp.model.AccountSummary;
+import com.example.bankapp.model.Transaction;
+import com.example.bankapp.outbox.TransactionOutbox;
+import com.example.bankapp.repository.AccountRepository;
+import com.example.bankapp.repository.OutboxEventRepository;
+import com.example.bankapp.repository.TransactionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class BulkTransferServiceTest {
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private AccountVersions accountVersions;
+
+    private BulkTransferService bulkTransferService;
+
+    @BeforeEach
+    void init() {
+        MockitoAnnotations.openMocks(this);
+        bulkTransferService = new BulkTransferService(accountRepository,
+                new AccountRowBalanceModel(accountRepository, transactionRepository,
+                        new TransactionOutbox(outboxEventRepository, true), new SimpleMeterRegistry()),
+                accountVersions, transactionManager);
+    }
+
+    private static Account account(Long id, String username, long balance) {
+        Account account = new Account();
+        account.setId(id);
+        account.setUsername(username);
+        account.setBalance(BigDecimal.valueOf(balance));
+        return account;
+    }
+
+    private static AccountSummary summary(Account account) {
+        AccountSummary summary = mock(AccountSummary.class);
+        when(summary.getId()).thenReturn(account.getId());
+        when(summary.getUsername()).thenReturn(account.getUsername());
+        return summary;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void appliesLinesInOrderAndRejectsIndividually() {
+        Account payer = account(5L, "payer", 150);
+        Account alice = account(2L, "alice", 0);
+        Account bob = account(9L, "bob", 0);
+        List<AccountSummary> summaries = List.of(summary(payer), summary(alice), summary(bob));
+        when(accountRepository.findSummariesByUsernameIn(anyCollection())).thenReturn(summaries);
+        when(accountRepository.findAllByIdForUpdate(anyCollection())).thenReturn(List.of(alice, payer, bob));
+
+        BulkTransferResult result = bulkTransferService.transfer(List.of(
+                new TransferInstruction("payer", "alice", BigDecimal.valueOf(100)),
+                new TransferInstruction("payer", "nobody", BigDecimal.ONE),
+                new TransferInstruction("payer", "bob", BigDecimal.valueOf(100)),
+                new TransferInstruction("payer", "bob", BigDecimal.valueOf(-5)),
+                new TransferInstruction("payer", "bob", BigDecimal.valueOf(50))));
+
+        assertThat(result.getItems()).extracting(BulkTransferResult.Item::status).containsExactly(
+                BulkTransferResult.Status.APPLIED, BulkTransferResult.Status.REJECTED, BulkTransferResult.Status.REJECTED,
+                BulkTransferResult.Status.REJECTED, BulkTransferResult.Status.APPLIED);
+        assertThat(result.getItems()).extracting(BulkTransferResult.Item::message).containsExactly(
+                null, "Recipient account not found", "Insufficient funds", "Amount must be positive", null);
+        assertThat(payer.getBalance()).isEqualTo(BigDecimal.ZERO);
+        assertThat(alice.getBalance()).isEqualTo(BigDecimal.valueOf(100));
+        assertThat(bob.getBalance()).isEqualTo(BigDecimal.valueOf(50));
+
+        // One lookup and one locking read, with ids locked in ascending order
+        ArgumentCaptor<Collection<Long>> lockedIds = ArgumentCaptor.forClass(Collection.class);
+        verify(accountRepository, times(1)).findSummariesByUsernameIn(anyCollection());
+        verify(accountRepository, times(1)).findAllByIdForUpdate(lockedIds.capture());
+        assertThat(new ArrayList<>(lockedIds.getValue())).containsExactly(2L, 5L, 9L);
+
+        ArgumentCaptor<List<Transaction>> ledger = ArgumentCaptor.forClass(List.class);
+        verify(transactionRepository, times(1)).saveAll(ledger.capture());
+        assertThat(ledger.getValue()).hasSize(4);
+        verify(accountRepository, never()).findByIdForUpdate(any());
+        // Only accounts a line was applied to move to a new version
+        verify(accountVersions).bump(Set.of(2L, 5L, 9L));
+    }
+
+    @Test
+    void rejectsEmptyBatch() {
+        List<TransferInstruction> lines = List.of();
+        assertThatThrownBy(() -> bulkTransferService.transfer(lines))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
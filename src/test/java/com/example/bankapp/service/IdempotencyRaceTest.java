@@ -0,0 +1,127 @@
+package com.example.bankapp.service;
+
+import com.example.bankapp.model.Account;
+import com.example.bankapp.repository.AccountRepository;
+import com.example.bankapp.repository.IdempotencyRecordRepository;
+import com.example.bankapp.repository.TransactionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.spy;
+
+/**
+ * Two instances, each with its own lanes and recent-key cache, receive the same request at
+ * once. Both look the key up before either commits, so only the primary key can decide.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:idempotency;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+class IdempotencyRaceTest {
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Autowired
+    private BalanceModel balanceModel;
+
+    @Autowired
+    private AccountVersions accountVersions;
+
+    private final CountDownLatch bothLookedUp = new CountDownLatch(2);
+    private AccountService first;
+    private AccountService second;
+
+    @BeforeEach
+    void setUp() {
+        first = instance();
+        second = instance();
+    }
+
+    @AfterEach
+    void tearDown() {
+        first.shutdown();
+        second.shutdown();
+    }
+
+    @Test
+    void racingDepositsWithOneKeyMoveMoneyOnce() throws Exception {
+        Account account = first.registerAccount("race-" + UUID.randomUUID(), "secret");
+
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            Future<MutationReceipt> a = callers.submit(() -> first.deposit(copy(account), new BigDecimal("25.00"), "same-key"));
+            Future<MutationReceipt> b = callers.submit(() -> second.deposit(copy(account), new BigDecimal("25.00"), "same-key"));
+            List<MutationReceipt> receipts = List.of(a.get(30, TimeUnit.SECONDS), b.get(30, TimeUnit.SECONDS));
+
+            assertThat(receipts).extracting(MutationReceipt::isReplayed).containsExactlyInAnyOrder(false, true);
+            assertThat(receipts.get(0).getTransactionId()).isEqualTo(receipts.get(1).getTransactionId());
+        } finally {
+            callers.shutdown();
+        }
+
+        assertThat(first.findAccountByUsername(account.getUsername()).getBalance()).isEqualByComparingTo("25.00");
+        assertThat(transactionRepository.findByAccountId(account.getId())).hasSize(1);
+    }
+
+    private AccountService instance() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        IdempotencyStore store = spy(new IdempotencyStore(idempotencyRecordRepository, 100, Duration.ofHours(24), meterRegistry));
+        // Hold each lookup until both callers have missed the key
+        doAnswer(invocation -> {
+            Object found = invocation.callRealMethod();
+            bothLookedUp.countDown();
+            bothLookedUp.await(10, TimeUnit.SECONDS);
+            return found;
+        }).when(store).find(anyLong(), anyString());
+        return new AccountService(passwordEncoder, accountRepository, transactionRepository, transactionManager,
+                meterRegistry, principalCache, store, balanceModel, accountVersions);
+    }
+
+    private static Account copy(Account account) {
+        Account view = new Account();
+        view.setId(account.getId());
+        view.setUsername(account.getUsername());
+        view.setBalance(BigDecimal.ZERO);
+        return view;
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.bankapp.service;
+
+import com.example.bankapp.model.Account;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:ledger;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "bankapp.balance.model=ledger",
+        // Folds are driven by the tests
+        "bankapp.ledger.snapshot-interval=PT1H"
+})
+class LedgerBalanceModelTest {
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private BulkTransferService bulkTransferService;
+
+    @Autowired
+    private LedgerSnapshotter snapshotter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Account alice;
+    private Account bob;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        alice = accountService.registerAccount("alice-" + suffix, "secret");
+        bob = accountService.registerAccount("bob-" + suffix, "secret");
+    }
+
+    @Test
+    void balancesAreDerivedFromEntriesWithoutUpdatingTheAccountRow() {
+        accountService.deposit(alice, new BigDecimal("100.00"));
+        accountService.withdraw(alice, new BigDecimal("30.00"));
+        accountService.transferAmount(alice, bob.getUsername(), new BigDecimal("50.00"));
+
+        assertThat(balanceOf(alice)).isEqualByComparingTo("20.00");
+        assertThat(balanceOf(bob)).isEqualByComparingTo("50.00");
+        assertThat(alice.getBalance()).isEqualByComparingTo("20.00");
+        assertThat(jdbcTemplate.queryForObject("select balance from account where id = ?", BigDecimal.class, alice.getId()))
+                .isEqualByComparingTo("0.00");
+        assertThat(jdbcTemplate.queryForObject("select sum(amount) from ledger_entry", BigDecimal.class))
+                .isEqualByComparingTo("0.00");
+    }
+
+    @Test
+    void debitsCannotOverdraw() {
+        accountService.deposit(bob, new BigDecimal("10.00"));
+
+        assertThatThrownBy(() -> accountService.withdraw(bob, new BigDecimal("10.01")))
+                .isInstanceOf(InsufficientFundsException.class);
+        assertThatThrownBy(() -> accountService.transferAmount(bob, alice.getUsername(), new BigDecimal("10.01")))
+                .isInstanceOf(InsufficientFundsException.class);
+        assertThat(balanceOf(bob)).isEqualByComparingTo("10.00");
+    }
+
+    @Test
+    void bulkTransfersSpendLockedBalancesInOrder() {
+        accountService.deposit(alice, new BigDecimal("100.00"));
+
+        BulkTransferResult result = bulkTransferService.transfer(List.of(
+                new TransferInstruction(alice.getUsername(), bob.getUsername(), new BigDecimal("80.00")),
+                new TransferInstruction(alice.getUsername(), bob.getUsername(), new BigDecimal("30.00")),
+                new TransferInstruction(bob.getUsername(), alice.getUsername(), new BigDecimal("5.00"))));
+
+        assertThat(result.getItems()).extracting(BulkTransferResult.Item::status).containsExactly(
+                BulkTransferResult.Status.APPLIED, BulkTransferResult.Status.REJECTED, BulkTransferResult.Status.APPLIED);
+        assertThat(balanceOf(alice)).isEqualByComparingTo("25.00");
+        assertThat(balanceOf(bob)).isEqualByComparingTo("75.00");
+    }
+
+    @Test
+    void foldingKeepsBalancesAndLaterEntriesExtendTheSnapshot() throws InterruptedException {
+        accountService.deposit(alice, new BigDecimal("100.00"));
+        accountService.transferAmount(alice, bob.getUsername(), new BigDecimal("40.00"));
+
+        Thread.sleep(5);
+        LocalDateTime cutoff = LocalDateTime.now();
+        Thread.sleep(5);
+        assertThat(snapshotter.fold(cutoff)).isGreaterThanOrEqualTo(2);
+        assertThat(jdbcTemplate.queryForObject("select balance from balance_snapshot where account_id = ?",
+                BigDecimal.class, alice.getId())).isEqualByComparingTo("60.00");
+
+        accountService.withdraw(alice, new BigDecimal("10.00"));
+
+        assertThat(balanceOf(alice)).isEqualByComparingTo("50.00");
+        assertThat(balanceOf(bob)).isEqualByComparingTo("40.00");
+        assertThat(snapshotter.fold(cutoff)).isZero();
+    }
+
+    private BigDecimal balanceOf(Account account) {
+        return accountService.findAccountByUsername(account.getUsername()).getBalance();
+    }
+}
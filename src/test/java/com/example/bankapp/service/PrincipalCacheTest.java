@@ -0,0 +1,68 @@
+package com.example.bankapp.service;
+
+import com.example.bankapp.model.AccountPrincipal;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PrincipalCacheTest {
+
+    private final PrincipalCache cache = new PrincipalCache(100, Duration.ofMinutes(5), new SimpleMeterRegistry());
+
+    @Test
+    void evictionWhileLoadingKeepsTheLoadedRowOutOfTheCache() {
+        AccountPrincipal stale = cache.get("userX", name -> {
+            // The account changes and is evicted while this login is still reading the old row
+            cache.invalidate(name);
+            return new AccountPrincipal(1L, name, "old");
+        });
+
+        assertThat(stale.getPassword()).isEqualTo("old");
+        assertThat(cache.get("userX", name -> new AccountPrincipal(1L, name, "new")).getPassword()).isEqualTo("new");
+    }
+
+    @Test
+    void concurrentMissesShareOneLoad() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<AccountPrincipal> first = CompletableFuture.supplyAsync(() -> cache.get("userX", name -> {
+            loads.incrementAndGet();
+            loading.countDown();
+            await(release);
+            return new AccountPrincipal(1L, name, "pass");
+        }));
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<AccountPrincipal> second = CompletableFuture.supplyAsync(() -> cache.get("userX", name -> {
+            loads.incrementAndGet();
+            return new AccountPrincipal(1L, name, "pass");
+        }));
+        release.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS).getPassword()).isEqualTo("pass");
+        assertThat(second.get(5, TimeUnit.SECONDS).getPassword()).isEqualTo("pass");
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    void unknownUsernamesAreNotCached() {
+        assertThat(cache.get("nobody", name -> null)).isNull();
+        assertThat(cache.get("nobody", name -> new AccountPrincipal(2L, name, "pass"))).isNotNull();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.bankapp.service;
+
+import com.example.bankapp.model.Account;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static com.example.bankapp.monitoring.SqlAssertions.assertAtMostStatements;
+import static com.example.bankapp.monitoring.SqlAssertions.assertStatements;
+
+/**
+ * Pins the SQL round trips of the hot read paths.
+ */
+@SpringBootTest
+class SqlStatementBudgetTest {
+
+    @Autowired
+    private AccountService accountService;
+
+    private Account account;
+
+    @BeforeEach
+    void setUp() {
+        account = accountService.registerAccount("sql-budget-" + UUID.randomUUID(), "secret");
+        for (int i = 0; i < 5; i++) {
+            accountService.deposit(account, BigDecimal.TEN);
+        }
+    }
+
+    @Test
+    void loginReadsOneRowThenHitsTheCache() {
+        assertStatements(1, () -> accountService.loadUserByUsername(account.getUsername()));
+        assertStatements(0, () -> accountService.loadUserByUsername(account.getUsername()));
+    }
+
+    @Test
+    void historyPageIsOneQueryWithoutTouchingAccounts() {
+        assertStatements(1, () -> accountService.getTransactionPage(account, null, 50).getItems()
+                .forEach(transaction -> transaction.getAmount()));
+    }
+
+    @Test
+    void depositIsAnUpdateAnInsertAndAVersionBump() {
+        // Plus at most one id block allocation (select and update of id_generator)
+        assertAtMostStatements(5, () -> accountService.deposit(account, BigDecimal.ONE));
+    }
+}
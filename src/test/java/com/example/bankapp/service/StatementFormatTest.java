@@ -0,0 +1,45 @@
+package com.example.bankapp.service;
+
+import com.example.bankapp.model.StatementLine;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StatementFormatTest {
+
+    private static final LocalDateTime TIMESTAMP = LocalDateTime.of(2024, 5, 1, 9, 30);
+
+    @Test
+    void csvQuotesFieldsContainingSeparators() throws IOException {
+        StringWriter out = new StringWriter();
+        StatementFormat.CSV.writeHeader(out);
+        StatementFormat.CSV.writeLine(out, new StatementLine(1L, TIMESTAMP, "Deposit", new BigDecimal("10.50")));
+        StatementFormat.CSV.writeLine(out, new StatementLine(2L, TIMESTAMP, "Transfer Out to \"a,b\"", new BigDecimal("1E+1")));
+
+        assertThat(out).hasToString("id,timestamp,type,amount\n"
+                + "1,2024-05-01T09:30,Deposit,10.50\n"
+                + "2,2024-05-01T09:30,\"Transfer Out to \"\"a,b\"\"\",10\n");
+    }
+
+    @Test
+    void ndjsonWritesOneEscapedObjectPerLine() throws IOException {
+        StringWriter out = new StringWriter();
+        StatementFormat.NDJSON.writeHeader(out);
+        StatementFormat.NDJSON.writeLine(out, new StatementLine(3L, TIMESTAMP, "Transfer In from \"x\\y\"", new BigDecimal("2.00")));
+
+        assertThat(out).hasToString(
+                "{\"id\":3,\"timestamp\":\"2024-05-01T09:30\",\"type\":\"Transfer In from \\\"x\\\\y\\\"\",\"amount\":2.00}\n");
+    }
+
+    @Test
+    void parsesFormatParameterCaseInsensitively() {
+        assertThat(StatementFormat.fromParameter("ndJSON")).isEqualTo(StatementFormat.NDJSON);
+        assertThatThrownBy(() -> StatementFormat.fromParameter("xml")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
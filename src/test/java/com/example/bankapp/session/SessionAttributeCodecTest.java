@@ -0,0 +1,80 @@
+package com.example.bankapp.session;
+
+import com.example.bankapp.model.AccountPrincipal;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SessionAttributeCodecTest {
+
+    private static final String SECURITY_CONTEXT = "SPRING_SECURITY_CONTEXT";
+
+    @Test
+    void securityContextRoundTripsWithoutCredentialsOrDetails() {
+        AccountPrincipal principal = new AccountPrincipal(42L, "alice", "{bcrypt}$2a$10$hash");
+        UsernamePasswordAuthenticationToken authentication =
+                UsernamePasswordAuthenticationToken.authenticated(principal, null, principal.getAuthorities());
+        authentication.setDetails(new WebAuthenticationDetails("10.0.0.1", "abc"));
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        attributes.put(SECURITY_CONTEXT, new SecurityContextImpl(authentication));
+        attributes.put("lastWrite", 1_700_000_000_000L);
+        attributes.put("flash", "Transfer complete");
+
+        Map<String, Object> decoded = SessionAttributeCodec.decode(SessionAttributeCodec.encode(attributes));
+
+        Authentication restored = ((SecurityContext) decoded.get(SECURITY_CONTEXT)).getAuthentication();
+        assertThat(restored.isAuthenticated()).isTrue();
+        assertThat(restored.getName()).isEqualTo("alice");
+        assertThat(restored.getDetails()).isNull();
+        assertThat(restored.getAuthorities()).extracting(Object::toString).containsExactly("USER");
+        AccountPrincipal restoredPrincipal = (AccountPrincipal) restored.getPrincipal();
+        assertThat(restoredPrincipal.getId()).isEqualTo(42L);
+        assertThat(restoredPrincipal.getPassword()).isNull();
+        assertThat(decoded.get("lastWrite")).isEqualTo(1_700_000_000_000L);
+        assertThat(decoded.get("flash")).isEqualTo("Transfer complete");
+        assertThat(SessionAttributeCodec.principalName(decoded)).isEqualTo("alice");
+    }
+
+    @Test
+    void signedInSessionIsAFractionOfItsJavaSerializedSize() throws IOException {
+        AccountPrincipal principal = new AccountPrincipal(42L, "alice", "{bcrypt}$2a$10$hash");
+        SecurityContextImpl context = new SecurityContextImpl(
+                UsernamePasswordAuthenticationToken.authenticated(principal, null, principal.getAuthorities()));
+
+        byte[] compact = SessionAttributeCodec.encode(Map.of(SECURITY_CONTEXT, context));
+
+        ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(serialized)) {
+            out.writeObject(context);
+        }
+        assertThat(compact.length).isLessThan(64);
+        assertThat(compact.length * 10).isLessThan(serialized.size());
+    }
+
+    @Test
+    void otherSerializableValuesFallBackToJavaSerialization() {
+        Map<String, Object> decoded = SessionAttributeCodec.decode(
+                SessionAttributeCodec.encode(Map.of("recent", List.of("alice", "bob"))));
+
+        assertThat(decoded.get("recent")).isEqualTo(List.of("alice", "bob"));
+    }
+
+    @Test
+    void unknownEncodingIsRejected() {
+        assertThatThrownBy(() -> SessionAttributeCodec.decode(new byte[]{9, 0, 0}))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
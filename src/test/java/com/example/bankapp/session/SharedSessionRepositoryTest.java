@@ -0,0 +1,130 @@
+package com.example.bankapp.session;
+
+import com.example.bankapp.model.AccountPrincipal;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextImpl;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:session;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+class SharedSessionRepositoryTest {
+
+    private static final String SECURITY_CONTEXT = "SPRING_SECURITY_CONTEXT";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Two instances sharing the table; near-cache disabled on the second so it always reads the row
+    private SharedSessionRepository blue;
+    private SharedSessionRepository green;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("delete from http_session");
+        blue = new SharedSessionRepository(jdbcTemplate, properties(Duration.ofMinutes(1)), new SimpleMeterRegistry());
+        green = new SharedSessionRepository(jdbcTemplate, properties(Duration.ZERO), new SimpleMeterRegistry());
+    }
+
+    @Test
+    void sessionSignedInOnOneInstanceIsSignedInOnAnother() {
+        SharedSession session = blue.createSession();
+        session.setAttribute(SECURITY_CONTEXT, signedIn("alice"));
+        blue.save(session);
+
+        SharedSession loaded = green.findById(session.getId());
+
+        assertThat(loaded).isNotNull();
+        assertThat(((SecurityContext) loaded.getAttribute(SECURITY_CONTEXT)).getAuthentication().getName())
+                .isEqualTo("alice");
+        assertThat(jdbcTemplate.queryForObject("select principal_name from http_session where session_id = ?",
+                String.class, session.getId())).isEqualTo("alice");
+    }
+
+    @Test
+    void lastAccessIsWrittenBehindInOneBatch() {
+        SharedSession session = blue.createSession();
+        blue.save(session);
+        Instant created = session.getLastAccessedTime();
+
+        SharedSession next = blue.findById(session.getId());
+        next.setLastAccessedTime(created.plusSeconds(30));
+        blue.save(next);
+
+        assertThat(blue.pendingTouchCount()).isEqualTo(1);
+        assertThat(storedLastAccess(session.getId())).isEqualTo(created.toEpochMilli());
+        // The instance that took the request already sees the new time
+        assertThat(blue.findById(session.getId()).getLastAccessedTime()).isEqualTo(created.plusSeconds(30));
+
+        blue.flush();
+
+        assertThat(blue.pendingTouchCount()).isZero();
+        assertThat(storedLastAccess(session.getId())).isEqualTo(created.plusSeconds(30).toEpochMilli());
+        // The table keeps milliseconds
+        assertThat(green.findById(session.getId()).getLastAccessedTime())
+                .isEqualTo(created.plusSeconds(30).truncatedTo(ChronoUnit.MILLIS));
+    }
+
+    @Test
+    void changedIdMovesTheRow() {
+        SharedSession session = blue.createSession();
+        session.setAttribute("flash", "hello");
+        blue.save(session);
+        String originalId = session.getId();
+
+        SharedSession loaded = blue.findById(originalId);
+        String newId = loaded.changeSessionId();
+        blue.save(loaded);
+
+        assertThat(blue.findById(originalId)).isNull();
+        assertThat(green.findById(originalId)).isNull();
+        assertThat(green.findById(newId).<String>getAttribute("flash")).isEqualTo("hello");
+    }
+
+    @Test
+    void deletedAndExpiredSessionsAreGone() {
+        SharedSession deleted = blue.createSession();
+        blue.save(deleted);
+        SharedSession expired = blue.createSession();
+        expired.setLastAccessedTime(Instant.now().minus(Duration.ofHours(1)));
+        blue.save(expired);
+
+        blue.deleteById(deleted.getId());
+
+        assertThat(green.findById(deleted.getId())).isNull();
+        assertThat(green.findById(expired.getId())).isNull();
+        assertThat(jdbcTemplate.queryForObject("select count(*) from http_session", Integer.class)).isZero();
+    }
+
+    private long storedLastAccess(String id) {
+        return jdbcTemplate.queryForObject("select last_access_time from http_session where session_id = ?",
+                Long.class, id);
+    }
+
+    private static SecurityContext signedIn(String username) {
+        AccountPrincipal principal = new AccountPrincipal(1L, username, "hash");
+        return new SecurityContextImpl(
+                UsernamePasswordAuthenticationToken.authenticated(principal, null, principal.getAuthorities()));
+    }
+
+    private static SessionStoreProperties properties(Duration nearCacheTtl) {
+        return new SessionStoreProperties(true, Duration.ofMinutes(30), nearCacheTtl, 1000, Duration.ofSeconds(10));
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.bankapp.warmup;
+
+import com.example.bankapp.repository.AccountRepository;
+import com.example.bankapp.repository.TransactionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:warmup;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "bankapp.warmup.round-size=2",
+        "bankapp.warmup.max-rounds=3"
+})
+class WarmupRunnerTest {
+
+    @Autowired
+    private WarmupRunner runner;
+
+    @Autowired
+    private WarmupHealthIndicator healthIndicator;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Test
+    void warmsServiceAndTemplatePathsBeforeReportingReady() {
+        assertThat(runner.isComplete()).isTrue();
+        assertThat(healthIndicator.health().getStatus()).isEqualTo(Status.UP);
+        assertThat(runner.getRounds()).containsKeys(
+                "account.lookup", "login.lookup", "history", "history.lines", "accounts", "statement",
+                "template.dashboard", "template.transactions", "json.history");
+        assertThat(runner.getRounds().values()).allSatisfy(rounds -> assertThat(rounds).isBetween(1, 3));
+
+        assertThat(meterRegistry.get("bankapp.warmup.latency").tag("path", "template.dashboard").timer().count())
+                .isGreaterThanOrEqualTo(2);
+        assertThat(meterRegistry.get("bankapp.warmup.duration").timeGauge().value()).isPositive();
+    }
+
+    @Test
+    void writesNothing() {
+        assertThat(accountRepository.count()).isZero();
+        assertThat(transactionRepository.count()).isZero();
+    }
+}
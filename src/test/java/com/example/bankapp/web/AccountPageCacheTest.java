@@ -0,0 +1,118 @@
+package com.example.bankapp.web;
+
+import com.example.bankapp.model.Account;
+import com.example.bankapp.service.AccountService;
+import com.example.bankapp.service.AccountVersions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:pagecache;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+class AccountPageCacheTest {
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountVersions accountVersions;
+
+    @Autowired
+    private AccountPageCache pageCache;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Account alice;
+    private Account bob;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        alice = accountService.registerAccount("alice-" + suffix, "secret");
+        bob = accountService.registerAccount("bob-" + suffix, "secret");
+    }
+
+    @Test
+    void everyBalanceChangeBumpsTheAccountsVersion() {
+        assertThat(accountVersions.current(alice.getId()).getVersion()).isZero();
+        assertThat(accountVersions.current(alice.getId()).getModifiedAt()).isNull();
+
+        accountService.deposit(alice, new BigDecimal("100.00"));
+        assertThat(accountVersions.current(alice.getId()).getVersion()).isEqualTo(1);
+        assertThat(accountVersions.current(alice.getId()).getModifiedAt()).isNotNull();
+
+        accountService.transferAmount(alice, bob.getUsername(), new BigDecimal("40.00"));
+        assertThat(accountVersions.current(alice.getId()).getVersion()).isEqualTo(2);
+        assertThat(accountVersions.current(bob.getId()).getVersion()).isEqualTo(1);
+    }
+
+    @Test
+    void versionMovesOnlyAfterTheChangeCommits() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            accountVersions.bump(alice.getId());
+            accountVersions.bump(List.of(alice.getId(), bob.getId()));
+            assertThat(accountVersions.current(alice.getId()).getVersion()).isZero();
+        });
+
+        // Once per committed transaction, however often it changed the account
+        assertThat(accountVersions.current(alice.getId()).getVersion()).isEqualTo(1);
+        assertThat(accountVersions.current(bob.getId()).getVersion()).isEqualTo(1);
+    }
+
+    @Test
+    void revalidatesUntilTheAccountChanges() {
+        accountService.deposit(alice, new BigDecimal("100.00"));
+
+        ServletWebRequest first = dashboardGet(null);
+        assertThat(summary(first)).contains("Current Balance: $100.00");
+        String etag = first.getResponse().getHeader("ETag");
+        assertThat(etag).startsWith("W/\"dashboard-" + alice.getId() + "-1-");
+        assertThat(first.getResponse().getHeader("Cache-Control")).isEqualTo("no-cache, private");
+
+        ServletWebRequest unchanged = dashboardGet(etag);
+        assertThat(summary(unchanged)).isNull();
+        assertThat(unchanged.isNotModified()).isTrue();
+        assertThat(unchanged.getResponse().getStatus()).isEqualTo(304);
+
+        accountService.withdraw(alice, new BigDecimal("30.00"));
+
+        ServletWebRequest changed = dashboardGet(etag);
+        assertThat(summary(changed)).contains("Current Balance: $70.00");
+        assertThat(changed.isNotModified()).isFalse();
+        assertThat(changed.getResponse().getHeader("ETag")).isNotEqualTo(etag);
+    }
+
+    private static ServletWebRequest dashboardGet(String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/dashboard");
+        if (ifNoneMatch != null) {
+            request.addHeader("If-None-Match", ifNoneMatch);
+        }
+        return new ServletWebRequest(request, new MockHttpServletResponse());
+    }
+
+    private String summary(ServletWebRequest request) {
+        return pageCache.load(request, "dashboard", alice.getId(), null,
+                version -> pageCache.fragment(AccountFragment.SUMMARY, alice.getId(), version, null,
+                        () -> Map.of("account", accountService.findAccountByUsername(alice.getUsername()))));
+    }
+}
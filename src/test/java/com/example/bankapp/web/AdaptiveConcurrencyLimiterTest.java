@@ -0,0 +1,127 @@
+package com.example.bankapp.web;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(5);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(500);
+
+    @Test
+    void refusesOnceLimitAndQueueAreFull() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10, 0, Duration.ZERO, 2.0);
+
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isFalse();
+
+        limiter.release(FAST, false);
+        assertThat(limiter.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void queuedRequestGetsThePermitWhenOneIsReleased() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 1, 1, Duration.ofSeconds(5), 2.0);
+        assertThat(limiter.tryAcquire()).isTrue();
+
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(limiter::tryAcquire);
+        while (limiter.getWaiting() == 0) {
+            Thread.onSpinWait();
+        }
+        // Queue of one is taken
+        assertThat(limiter.tryAcquire()).isFalse();
+
+        limiter.release(FAST, false);
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(limiter.getInFlight()).isEqualTo(1);
+    }
+
+    @Test
+    void queuedRequestIsRefusedAfterMaxWait() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 1, 1, Duration.ofMillis(20), 2.0);
+        assertThat(limiter.tryAcquire()).isTrue();
+
+        assertThat(limiter.tryAcquire()).isFalse();
+        assertThat(limiter.getWaiting()).isZero();
+    }
+
+    @Test
+    void slowCompletionsShrinkTheLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 4, 100, 0, Duration.ZERO, 2.0);
+        cycle(limiter, 20, FAST, false);
+
+        for (int i = 0; i < 10; i++) {
+            cycle(limiter, 1, SLOW, false);
+        }
+
+        assertThat(limiter.getLimit()).isLessThan(10);
+    }
+
+    @Test
+    void unsampledReleasesLeaveTheLimitAlone() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 4, 100, 0, Duration.ZERO, 2.0);
+        cycle(limiter, 20, SLOW, false);
+        int limit = limiter.getLimit();
+
+        // A run of cheap revalidations must not make the next real request look slow
+        for (int i = 0; i < 1000; i++) {
+            assertThat(limiter.tryAcquire()).isTrue();
+            limiter.release();
+        }
+        cycle(limiter, 1, SLOW, false);
+
+        assertThat(limiter.getLimit()).isEqualTo(limit);
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    void failuresShrinkTheLimitDownToTheMinimum() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 4, 100, 0, Duration.ZERO, 2.0);
+
+        cycle(limiter, 1, FAST, true);
+        assertThat(limiter.getLimit()).isEqualTo(18);
+
+        for (int i = 0; i < 50; i++) {
+            cycle(limiter, 1, FAST, true);
+        }
+        assertThat(limiter.getLimit()).isEqualTo(4);
+    }
+
+    @Test
+    void fastCompletionsUnderLoadGrowTheLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 4, 100, 0, Duration.ZERO, 2.0);
+
+        for (int i = 0; i < 20; i++) {
+            cycle(limiter, limiter.getLimit(), FAST, false);
+        }
+
+        assertThat(limiter.getLimit()).isGreaterThan(10);
+    }
+
+    @Test
+    void idleLimitDoesNotGrow() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 4, 100, 0, Duration.ZERO, 2.0);
+
+        for (int i = 0; i < 200; i++) {
+            cycle(limiter, 1, FAST, false);
+        }
+
+        assertThat(limiter.getLimit()).isEqualTo(10);
+    }
+
+    /** Takes {@code concurrency} permits, then releases them all with the given latency. */
+    private static void cycle(AdaptiveConcurrencyLimiter limiter, int concurrency, long rttNanos, boolean failed) {
+        for (int i = 0; i < concurrency; i++) {
+            assertThat(limiter.tryAcquire()).isTrue();
+        }
+        for (int i = 0; i < concurrency; i++) {
+            limiter.release(rttNanos, failed);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.bankapp.web;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConcurrencyLimitFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(new ConcurrencyLimitProperties(true, 2.0,
+            Duration.ofSeconds(2),
+            Map.of(ConcurrencyLimitFilter.MUTATION, new ConcurrencyLimitProperties.Endpoint(1, 1, 1, 0, Duration.ZERO))),
+            meterRegistry);
+
+    @Test
+    void refusesMutationsOverTheLimitWith503AndRetryAfter() throws Exception {
+        CountDownLatch inside = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.submit(() -> {
+                filter.doFilter(new MockHttpServletRequest("POST", "/deposit"), new MockHttpServletResponse(), (req, res) -> {
+                    inside.countDown();
+                    await(finish);
+                });
+                return null;
+            });
+            assertThat(inside.await(5, TimeUnit.SECONDS)).isTrue();
+
+            MockHttpServletResponse refused = new MockHttpServletResponse();
+            filter.doFilter(new MockHttpServletRequest("POST", "/transfer"), refused, (req, res) -> {
+                throw new AssertionError("should have been refused");
+            });
+
+            assertThat(refused.getStatus()).isEqualTo(503);
+            assertThat(refused.getHeader("Retry-After")).isEqualTo("2");
+            assertThat(meterRegistry.get("bankapp.concurrency.rejected").tag("endpoint", "mutation").counter().count())
+                    .isEqualTo(1.0);
+            assertThat(meterRegistry.get("bankapp.concurrency.inflight").tag("endpoint", "mutation").gauge().value())
+                    .isEqualTo(1.0);
+        } finally {
+            finish.countDown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void onlyRequestsThatDidTheWorkFeedTheLimit() {
+        assertThat(ConcurrencyLimitFilter.didGuardedWork(200)).isTrue();
+        assertThat(ConcurrencyLimitFilter.didGuardedWork(302)).isTrue();
+        assertThat(ConcurrencyLimitFilter.didGuardedWork(500)).isTrue();
+        assertThat(ConcurrencyLimitFilter.didGuardedWork(304)).isFalse();
+        assertThat(ConcurrencyLimitFilter.didGuardedWork(400)).isFalse();
+        assertThat(ConcurrencyLimitFilter.didGuardedWork(429)).isFalse();
+    }
+
+    @Test
+    void doesNotLimitOtherEndpoints() throws Exception {
+        for (String path : new String[]{"/login", "/actuator/health", "/accounts"}) {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            FilterChain chain = (req, res) -> ((MockHttpServletResponse) res).setStatus(200);
+            filter.doFilter(new MockHttpServletRequest("GET", path), response, chain);
+            assertThat(response.getStatus()).isEqualTo(200);
+        }
+        assertThat(ConcurrencyLimitFilter.classify(new MockHttpServletRequest("GET", "/deposit"))).isNull();
+        assertThat(ConcurrencyLimitFilter.classify(new MockHttpServletRequest("GET", "/transactions")))
+                .isEqualTo(ConcurrencyLimitFilter.HISTORY);
+        assertThat(ConcurrencyLimitFilter.classify(new MockHttpServletRequest("GET", "/statement")))
+                .isEqualTo(ConcurrencyLimitFilter.EXPORT);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
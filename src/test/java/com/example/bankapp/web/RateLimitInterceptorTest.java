@@ -0,0 +1,41 @@
+package com.example.bankapp.web;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitInterceptorTest {
+
+    private final Counter rejected = new SimpleMeterRegistry().counter("bankapp.ratelimit.rejected");
+    private final RateLimitInterceptor interceptor =
+            new RateLimitInterceptor(new TokenBucketRateLimiter(0.5, 1, 100), rejected);
+
+    @Test
+    void refusesOverTheLimitWith429AndRetryAfter() throws Exception {
+        assertThat(interceptor.preHandle(post("alice"), new MockHttpServletResponse(), null)).isTrue();
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertThat(interceptor.preHandle(post("alice"), response, null)).isFalse();
+
+        assertThat(response.getStatus()).isEqualTo(429);
+        assertThat(response.getHeader("Retry-After")).isEqualTo("2");
+        assertThat(rejected.count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void limitsEachUserSeparately() throws Exception {
+        assertThat(interceptor.preHandle(post("alice"), new MockHttpServletResponse(), null)).isTrue();
+        assertThat(interceptor.preHandle(post("bob"), new MockHttpServletResponse(), null)).isTrue();
+    }
+
+    private static MockHttpServletRequest post(String username) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/transfer");
+        request.setUserPrincipal(new UsernamePasswordAuthenticationToken(username, null));
+        return request;
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.bankapp.web;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketRateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void allowsTheBurstThenRefusesWithTheWaitUntilTheNextPermit() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(2, 3, 100);
+        long now = 1_000 * SECOND;
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.tryAcquire("alice", now)).isZero();
+        }
+        assertThat(limiter.tryAcquire("alice", now)).isEqualTo(SECOND / 2);
+    }
+
+    @Test
+    void refillsAtTheConfiguredRate() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(2, 1, 100);
+        long now = 1_000 * SECOND;
+
+        assertThat(limiter.tryAcquire("alice", now)).isZero();
+        assertThat(limiter.tryAcquire("alice", now + SECOND / 4)).isPositive();
+        assertThat(limiter.tryAcquire("alice", now + SECOND / 2)).isZero();
+    }
+
+    @Test
+    void keysHaveIndependentBuckets() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, 1, 100);
+        long now = 1_000 * SECOND;
+
+        assertThat(limiter.tryAcquire("alice", now)).isZero();
+        assertThat(limiter.tryAcquire("alice", now)).isPositive();
+        assertThat(limiter.tryAcquire("bob", now)).isZero();
+    }
+
+    @Test
+    void concurrentCallersNeverExceedTheBurst() throws Exception {
+        // Slow refill, so only the burst is available during the test
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(0.001, 50, 100);
+        AtomicInteger granted = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 100; i++) {
+                        if (limiter.tryAcquire("alice") == 0) {
+                            granted.incrementAndGet();
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(granted).hasValue(50);
+    }
+}